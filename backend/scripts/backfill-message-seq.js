@@ -0,0 +1,31 @@
+// Numbers the conversation messages stored before seq existed (no seq field) with -1, -2, ... per
+// report, newest first, so clients can page back to them with "before" like any other message.
+// Writes the same numbers the backend assigns on the first read of such a report, so it is safe
+// to run more than once and while the backend is running.
+//
+// usage: mongosh "<connection-string>/<database>" scripts/backfill-message-seq.js
+const messages = db.getCollection('conversation_messages');
+const BATCH = 500;
+
+const legacy = { seq: { $not: { $gt: 0 } } };
+
+let reports = 0;
+let numbered = 0;
+messages.distinct('reportId', legacy).forEach((reportId) => {
+    let ops = [];
+    let seq = 0;
+    messages.find({ reportId, ...legacy }, { _id: 1 }).sort({ createdAt: -1, _id: -1 }).forEach((message) => {
+        seq -= 1;
+        ops.push({ updateOne: { filter: { _id: message._id }, update: { $set: { seq: NumberLong(seq) } } } });
+        if (ops.length === BATCH) {
+            messages.bulkWrite(ops, { ordered: false });
+            ops = [];
+        }
+    });
+    if (ops.length > 0) {
+        messages.bulkWrite(ops, { ordered: false });
+    }
+    reports += 1;
+    numbered -= seq;
+});
+print(`numbered ${numbered} messages in ${reports} reports`);
@@ -0,0 +1,45 @@
+// Sets unreadFromReporter / unreadFromComplianceTeam of every report to the number of unread
+// messages of that side. Reports created before the counters existed start at 0 although their
+// conversations have unread messages; mark-read clamps at 0 meanwhile, this makes them exact.
+// A report that gets a new message while it is being counted is skipped (its messageSeq moved)
+// and reported; run the script again for those. Tenant dashboard counters rebuild themselves
+// (TenantSummaryService), they do not need this.
+//
+// usage: mongosh "<connection-string>/<database>" scripts/backfill-unread-counters.js
+const reports = db.getCollection('whistleblower_reports');
+const messages = db.getCollection('conversation_messages');
+const BATCH = 500;
+
+let ops = [];
+let updated = 0;
+let skipped = 0;
+
+function flush() {
+    if (ops.length > 0) {
+        const result = reports.bulkWrite(ops, { ordered: false });
+        updated += result.modifiedCount;
+        skipped += ops.length - result.matchedCount;
+        ops = [];
+    }
+}
+
+reports.find({}, { reportId: 1, messageSeq: 1 }).forEach((report) => {
+    const unread = (sender) => messages.countDocuments({ reportId: report.reportId, sender, readOrUnRead: false });
+    ops.push({
+        updateOne: {
+            // missing and 0 both mean no message has been sent since seq existed
+            filter: { _id: report._id, messageSeq: report.messageSeq === undefined ? { $in: [null, 0] } : report.messageSeq },
+            update: {
+                $set: {
+                    unreadFromReporter: NumberLong(unread('REPORTER')),
+                    unreadFromComplianceTeam: NumberLong(unread('COMPLIANCE_TEAM')),
+                },
+            },
+        },
+    });
+    if (ops.length === BATCH) {
+        flush();
+    }
+});
+flush();
+print(`updated ${updated} reports, ${skipped} skipped because they changed meanwhile`);
@@ -0,0 +1,37 @@
+// Replaces the plaintext secretKey of every report with its SHA-256 hash (secretKeyHash) and drops
+// the index on secretKey (the backend makes it sparse at startup). Safe to run more than once and
+// while the backend is running: reports not reached yet are migrated on their first lookup.
+// Afterwards app.secret-key.legacy-lookup can be turned off.
+//
+// usage: mongosh "<connection-string>/<database>" scripts/migrate-secret-key-hashes.js
+const crypto = require('crypto');
+
+const reports = db.getCollection('whistleblower_reports');
+const BATCH = 500;
+
+let migrated = 0;
+let ops = [];
+reports.find({ secretKey: { $type: 'string' } }, { secretKey: 1 }).forEach((report) => {
+    const hash = crypto.createHash('sha256').update(report.secretKey, 'utf8').digest('hex');
+    ops.push({
+        updateOne: {
+            filter: { _id: report._id, secretKey: report.secretKey },
+            update: { $set: { secretKeyHash: hash }, $unset: { secretKey: '' } },
+        },
+    });
+    if (ops.length === BATCH) {
+        migrated += reports.bulkWrite(ops, { ordered: false }).modifiedCount;
+        ops = [];
+    }
+});
+if (ops.length > 0) {
+    migrated += reports.bulkWrite(ops, { ordered: false }).modifiedCount;
+}
+print(`migrated ${migrated} reports`);
+
+reports.getIndexes()
+    .filter((index) => Object.keys(index.key).length === 1 && index.key.secretKey !== undefined)
+    .forEach((index) => {
+        reports.dropIndex(index.name);
+        print(`dropped index ${index.name}`);
+    });
@@ -0,0 +1,50 @@
+#!/usr/bin/env bash
+# Runs the native artifact in the provided.al2023 image under the Lambda Runtime Interface
+# Emulator and sends it the proxy event fixture. Build it first with: mvn -Pnative package
+#
+# usage: scripts/native-smoke-test.sh [event-file]
+# Settings that application.properties does not provide (e.g. SPRING_DATA_MONGODB_URI,
+# AWS_REGION) can be passed through an env file: SMOKE_ENV_FILE=.env scripts/native-smoke-test.sh
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+EVENT=${1:-events/proxy-event.json}
+ZIP=target/whistleblower-1.0-SNAPSHOT-native.zip
+PORT=${SMOKE_PORT:-9000}
+IMAGE=public.ecr.aws/lambda/provided:al2023
+
+[ -f "$ZIP" ] || { echo "$ZIP not found, run: mvn -Pnative package" >&2; exit 1; }
+
+TASK_DIR=$(mktemp -d)
+trap 'docker rm -f "${CONTAINER:-}" > /dev/null 2>&1 || true; rm -rf "$TASK_DIR"' EXIT
+unzip -q "$ZIP" -d "$TASK_DIR"
+
+ENV_ARGS=()
+if [ -n "${SMOKE_ENV_FILE:-}" ]; then
+  ENV_ARGS=(--env-file "$SMOKE_ENV_FILE")
+fi
+
+STARTED=$(date +%s%N)
+CONTAINER=$(docker run -d -p "${PORT}:8080" -v "${TASK_DIR}:/var/task:ro" "${ENV_ARGS[@]}" "$IMAGE" native)
+
+# the emulator only starts the runtime on the first invocation, so this includes the cold start
+RESPONSE=""
+for _ in $(seq 1 30); do
+  if RESPONSE=$(curl -sf -XPOST "http://localhost:${PORT}/2015-03-31/functions/function/invocations" -d @"$EVENT"); then
+    break
+  fi
+  sleep 1
+done
+ELAPSED_MS=$(( ($(date +%s%N) - STARTED) / 1000000 ))
+
+docker logs "$CONTAINER" 2>&1 | tail -n 20
+echo "response: $RESPONSE"
+echo "first response after ${ELAPSED_MS} ms"
+
+STATUS=$(echo "$RESPONSE" | python3 -c "import json,sys; print(json.load(sys.stdin).get('statusCode'))" 2>/dev/null || true)
+if [ "$STATUS" != "200" ]; then
+  echo "smoke test FAILED (statusCode=${STATUS:-none})" >&2
+  exit 1
+fi
+echo "smoke test passed"
@@ -0,0 +1,61 @@
+#!/usr/bin/env bash
+# Compares the standalone server on platform threads and on virtual threads under the same load.
+#
+# Starts the server twice (spring.threads.virtual.enabled=false, then true) with the standalone
+# profile, drives each with `hey` against the reporter conversation endpoint and a tenant summary,
+# and prints the throughput and latency lines of each run. Needs Java 21, `hey`
+# (https://github.com/rakyll/hey) and an application.properties pointing at MongoDB.
+#
+# The secret key endpoint is rate limited per client; the limit is raised for the run, otherwise
+# most requests measure the 429 path.
+#
+# usage: scripts/standalone-load-test.sh <secret-key> <tenant-id> [concurrency] [duration]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+SECRET_KEY=${1:?usage: $0 <secret-key> <tenant-id> [concurrency] [duration]}
+TENANT_ID=${2:?usage: $0 <secret-key> <tenant-id> [concurrency] [duration]}
+CONCURRENCY=${3:-400}
+DURATION=${4:-30s}
+PORT=${LOAD_TEST_PORT:-8080}
+BASE_URL="http://localhost:${PORT}"
+
+command -v hey > /dev/null || { echo "hey not found: go install github.com/rakyll/hey@latest" >&2; exit 1; }
+
+SERVER_PID=
+trap '[ -n "$SERVER_PID" ] && kill "$SERVER_PID" 2> /dev/null || true' EXIT
+
+run() {
+  local virtual=$1
+  local log
+  log=$(mktemp)
+  mvn -q -Pstandalone spring-boot:run -Dspring-boot.run.profiles=standalone \
+    -Dspring-boot.run.arguments="--server.port=${PORT} --spring.threads.virtual.enabled=${virtual} \
+--app.secret-key.rate-limit.burst=1000000 --app.secret-key.rate-limit.per-second=1000000" > "$log" 2>&1 &
+  SERVER_PID=$!
+
+  # any HTTP answer means the server is up (/ping needs a token, health may report Mongo or S3 down)
+  for _ in $(seq 1 120); do
+    curl -s -o /dev/null "${BASE_URL}/actuator/health" && break
+    sleep 1
+  done
+  curl -s -o /dev/null "${BASE_URL}/actuator/health" || { echo "server did not start, see $log" >&2; exit 1; }
+
+  # warm up the JIT and the connection pool before measuring
+  hey -z 10s -c "$CONCURRENCY" "${BASE_URL}/whistleblower/report/${SECRET_KEY}/conversation" > /dev/null
+
+  for path in "/whistleblower/report/${SECRET_KEY}/conversation" "/whistleblower/tenant/${TENANT_ID}/summary"; do
+    echo "virtual threads ${virtual}, ${CONCURRENCY} clients, ${DURATION}: GET ${path}"
+    hey -z "$DURATION" -c "$CONCURRENCY" "${BASE_URL}${path}" \
+      | grep -E "Requests/sec|Average|Slowest|50%|99%|\[[0-9]+\]"
+  done
+
+  kill "$SERVER_PID"
+  wait "$SERVER_PID" 2> /dev/null || true
+  SERVER_PID=
+  rm -f "$log"
+}
+
+run false
+run true
@@ -0,0 +1,63 @@
+#!/usr/bin/env bash
+# Measures cold start of the deployed function: init (or restore) duration and first-request latency.
+#
+# Every round changes an environment variable and publishes a new version, which forces a new
+# sandbox (and, with SnapStart, a new snapshot), then sends one request through the alias.
+# Results come from the Lambda REPORT lines plus the "startup ..." lines logged by StreamLambdaHandler.
+#
+# usage: scripts/startup-benchmark.sh <function-name> [rounds] [alias]
+set -euo pipefail
+
+FUNCTION=${1:?usage: $0 <function-name> [rounds] [alias]}
+ROUNDS=${2:-5}
+ALIAS=${3:-live}
+LOG_GROUP="/aws/lambda/${FUNCTION}"
+PAYLOAD='{"resource":"/{proxy+}","path":"/","httpMethod":"GET","headers":{"Host":"localhost"},"requestContext":{"resourcePath":"/{proxy+}","httpMethod":"GET","path":"/","stage":"bench","identity":{"sourceIp":"127.0.0.1"}},"isBase64Encoded":false}'
+
+START=$(date +%s)
+
+for round in $(seq 1 "$ROUNDS"); do
+  echo "round ${round}/${ROUNDS}: publishing a new version"
+  # keep the existing variables, only bump the marker
+  VARS=$(aws lambda get-function-configuration --function-name "$FUNCTION" \
+    --query 'Environment.Variables' --output json | python3 -c \
+    "import json,sys; v=json.load(sys.stdin) or {}; v['STARTUP_BENCHMARK_ROUND']='${round}-$(date +%s)'; print(json.dumps({'Variables': v}))")
+  aws lambda update-function-configuration --function-name "$FUNCTION" --environment "$VARS" > /dev/null
+  aws lambda wait function-updated-v2 --function-name "$FUNCTION"
+  VERSION=$(aws lambda publish-version --function-name "$FUNCTION" --query Version --output text)
+  aws lambda wait published-version-active --function-name "$FUNCTION" --qualifier "$VERSION"
+  aws lambda update-alias --function-name "$FUNCTION" --name "$ALIAS" --function-version "$VERSION" > /dev/null
+
+  aws lambda invoke --function-name "$FUNCTION" --qualifier "$ALIAS" \
+    --cli-binary-format raw-in-base64-out --payload "$PAYLOAD" /dev/null > /dev/null
+done
+
+echo "waiting for logs to arrive"
+sleep 15
+
+QUERY='filter @type = "REPORT" or @message like /startup /
+| parse @message /Restore Duration: (?<restore>[0-9.]+) ms/
+| parse @message /startup first_request_ms=(?<first>[0-9]+)/
+| stats count(@initDuration) as cold_inits, avg(@initDuration) as avg_init_ms, max(@initDuration) as max_init_ms,
+        count(restore) as restores, avg(restore) as avg_restore_ms, max(restore) as max_restore_ms,
+        avg(first) as avg_first_request_ms, max(first) as max_first_request_ms'
+
+QUERY_ID=$(aws logs start-query --log-group-name "$LOG_GROUP" \
+  --start-time "$START" --end-time "$(date +%s)" --query-string "$QUERY" --output text --query queryId)
+
+while true; do
+  RESULT=$(aws logs get-query-results --query-id "$QUERY_ID" --output json)
+  STATUS=$(echo "$RESULT" | python3 -c "import json,sys; print(json.load(sys.stdin)['status'])")
+  if [ "$STATUS" != "Running" ] && [ "$STATUS" != "Scheduled" ]; then
+    break
+  fi
+  sleep 2
+done
+
+echo "$RESULT" | python3 -c "
+import json, sys
+rows = json.load(sys.stdin)['results']
+for row in rows:
+    for field in row:
+        print(f\"{field['field']:>22}: {field['value']}\")
+"
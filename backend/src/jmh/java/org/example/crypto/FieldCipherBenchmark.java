@@ -0,0 +1,90 @@
+package org.example.crypto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.crypto.SecretKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cipher work added to the two hot paths once field encryption is on, with a warm data key cache
+ * (the state a warm container is in after its first request per tenant):
+ * createReport encrypts one report text, getConversationBySecretKey decrypts the report text plus
+ * one window of messages. Compare against the MongoDB round trips of the same calls (milliseconds).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldCipherBenchmark {
+
+    private static final String TENANT = "tenant-1";
+
+    @Param({"300", "4000"})
+    int messageChars;
+
+    // MessageWindow default
+    @Param({"100"})
+    int windowSize;
+
+    private FieldCipher cipher;
+    private String reportText;
+    private String encryptedReport;
+    private List<String> encryptedWindow;
+
+    @Setup
+    public void setUp() {
+        DataKey key = new DataKey("bench-key", AesGcm.newKey());
+        cipher = new FieldCipher(new DataKeySource() {
+            @Override
+            public DataKey forEncryption(String tenantId) {
+                return key;
+            }
+
+            @Override
+            public SecretKey forDecryption(String keyId) {
+                return key.key();
+            }
+        });
+
+        reportText = "x".repeat(messageChars);
+        encryptedReport = cipher.encrypt(TENANT, reportText);
+        encryptedWindow = new ArrayList<>(windowSize);
+        for (int i = 0; i < windowSize; i++) {
+            encryptedWindow.add(cipher.encrypt(TENANT, "message " + i + " " + "y".repeat(messageChars)));
+        }
+    }
+
+    @Benchmark
+    public String createReport() {
+        return cipher.encrypt(TENANT, reportText);
+    }
+
+    @Benchmark
+    public void getConversationBySecretKey(Blackhole blackhole) {
+        blackhole.consume(cipher.decrypt(encryptedReport));
+        for (String message : encryptedWindow) {
+            blackhole.consume(cipher.decrypt(message));
+        }
+    }
+
+    // Legacy plaintext rows only pay for the prefix check
+    @Benchmark
+    public String decryptPlaintext() {
+        return cipher.decrypt(reportText);
+    }
+}
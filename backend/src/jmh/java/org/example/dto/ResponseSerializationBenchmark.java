@@ -0,0 +1,102 @@
+package org.example.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.example.model.ConversationMessage;
+import org.example.model.MessageSender;
+import org.example.model.ReportStatus;
+import org.example.model.WhistleblowerReport;
+import org.example.repository.projection.AdminReportView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing the two conversation responses the way the controllers return them. The admin report
+ * is a Spring Data interface projection, serialized through its proxy as in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    // MessageWindow default and a short conversation
+    @Param({"10", "100"})
+    int windowSize;
+
+    private ObjectMapper mapper;
+    private ReportWithConversationResponse reporterResponse;
+    private AdminReportConversationResponse adminResponse;
+
+    @Setup
+    public void setUp() {
+        // Same modules as the Boot-configured mapper (java.time among them)
+        mapper = JsonMapper.builder().findAndAddModules().build();
+
+        Instant now = Instant.now();
+        WhistleblowerReport report = WhistleblowerReport.builder()
+                .reportId("6f1c2a9e-3f57-4c1b-9a55-0d2f4d9c8b11")
+                .tenantId("tenant-1")
+                .subject("Expense fraud")
+                .message("Invoices from the same supplier are approved twice every month.")
+                .attachments(List.of("uploads/6f1c2a9e_invoice.pdf"))
+                .status(ReportStatus.IN_PROGRESS)
+                .messageSeq(windowSize)
+                .createdAt(now)
+                .deadlineAt(now.plusSeconds(7 * 24 * 60 * 60))
+                .updatedAt(now)
+                .build();
+
+        List<ConversationMessage> messages = new ArrayList<>(windowSize);
+        for (int i = 1; i <= windowSize; i++) {
+            messages.add(ConversationMessage.builder()
+                    .id("65f0c0ffee" + i)
+                    .reportId(report.getReportId())
+                    .tenantId(report.getTenantId())
+                    .seq(i)
+                    .sender(i % 2 == 0 ? MessageSender.COMPLIANCE_TEAM : MessageSender.REPORTER)
+                    .message("Message " + i + ": could you tell us which cost centre the invoices were booked on?")
+                    .attachments(List.of())
+                    .createdAt(now.plusSeconds(i))
+                    .build());
+        }
+
+        reporterResponse = ReportWithConversationResponse.builder()
+                .report(report)
+                .messages(messages)
+                .hasMore(false)
+                .build();
+        adminResponse = AdminReportConversationResponse.builder()
+                .report(new SpelAwareProxyProjectionFactory().createProjection(AdminReportView.class, report))
+                .messages(messages)
+                .hasMore(false)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] reporterConversation() throws Exception {
+        return mapper.writeValueAsBytes(reporterResponse);
+    }
+
+    @Benchmark
+    public byte[] adminConversation() throws Exception {
+        return mapper.writeValueAsBytes(adminResponse);
+    }
+}
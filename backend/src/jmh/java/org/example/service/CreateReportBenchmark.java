@@ -0,0 +1,73 @@
+package org.example.service;
+
+import org.example.model.Tenant;
+import org.example.model.WhistleblowerReport;
+import org.example.repository.TenantCountersRepository;
+import org.example.repository.TenantRepository;
+import org.example.repository.WhistleblowerReportRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CPU side of ConversationService.createReport: validation, tenant cache hit, secret key and
+ * report id generation, hashing and building the document. Repositories are in-memory stand-ins
+ * whose save returns its argument, so MongoDB and the encryption callbacks are not part of the number.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreateReportBenchmark {
+
+    private static final String TENANT = "tenant-1";
+
+    private ConversationService service;
+
+    @Setup
+    public void setUp() {
+        Tenant tenant = Tenant.builder().tenantId(TENANT).active(true).build();
+        TenantRepository tenants = inMemory(TenantRepository.class, (method, args) ->
+                "findByTenantId".equals(method) ? Optional.of(tenant) : Optional.empty());
+        WhistleblowerReportRepository reports = inMemory(WhistleblowerReportRepository.class, (method, args) ->
+                "save".equals(method) ? args[0] : null);
+        TenantCountersRepository counters = inMemory(TenantCountersRepository.class, (method, args) -> null);
+
+        service = new ConversationService(
+                reports,
+                null, // createReport stores no messages
+                new TenantCache(tenants, 1000, 300),
+                counters,
+                new SecretKeyLookup(reports, false, 10_000, 300, 20, 1, 10_000));
+    }
+
+    @Benchmark
+    public WhistleblowerReport createReport() {
+        return service.createReport(TENANT, "Expense fraud",
+                "Invoices from the same supplier are approved twice every month.", List.of());
+    }
+
+    interface Answer {
+        Object answer(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T inMemory(Class<T> type, Answer answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> answer.answer(method.getName(), args));
+    }
+}
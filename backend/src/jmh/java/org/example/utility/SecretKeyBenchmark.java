@@ -0,0 +1,68 @@
+package org.example.utility;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Secret key generation as createReport uses it. The legacy* benchmarks keep the previous
+ * String.format encoding for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecretKeyBenchmark {
+
+    private static final SecureRandom LEGACY_RANDOM = new SecureRandom();
+
+    private byte[] keyBytes;
+
+    @Setup
+    public void setUp() {
+        keyBytes = new byte[32];
+        LEGACY_RANDOM.nextBytes(keyBytes);
+    }
+
+    @Benchmark
+    public String legacyHex() {
+        return legacyHexOf(keyBytes);
+    }
+
+    @Benchmark
+    public String hex() {
+        return SecretKeyGenerator.bytesToHex(keyBytes);
+    }
+
+    @Benchmark
+    public String legacySecretKey() {
+        byte[] bytes = new byte[32];
+        LEGACY_RANDOM.nextBytes(bytes);
+        return legacyHexOf(bytes);
+    }
+
+    @Benchmark
+    public String secretKey() {
+        return SecretKeyGenerator.generateSecretKey();
+    }
+
+    private static String legacyHexOf(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
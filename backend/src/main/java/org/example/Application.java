@@ -3,7 +3,11 @@ package org.example;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
+import java.util.Map;
+
+import org.example.config.NativeRuntimeHints;
 import org.example.controller.PingController;
 
 
@@ -11,9 +15,13 @@ import org.example.controller.PingController;
 // We use direct @Import instead of @ComponentScan to speed up cold starts
 // @ComponentScan(basePackages = "org.example.controller")
 @Import({ PingController.class })
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class Application {
 
+    // Standalone only, Lambda starts the context through StreamLambdaHandler and reports metrics as EMF
     public static void main(String[] args) {
-        SpringApplication.run(Application.class, args);
+        SpringApplication application = new SpringApplication(Application.class);
+        application.setDefaultProperties(Map.of("management.endpoints.web.exposure.include", "health,prometheus"));
+        application.run(args);
     }
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package org.example;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.example.event.DeadlineEscalationEvent.Level;
+import org.example.metrics.EmfMeterRegistry;
+import org.example.service.DeadlineScanner;
+import org.springframework.context.ApplicationContext;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Entry point of the scheduled deadline scan (DeadlineScanFunction in the SAM templates).
+ * A frozen Lambda sandbox never fires the @Scheduled timer, so EventBridge invokes this handler
+ * every 15 minutes instead; the event itself carries nothing we need.
+ */
+@Slf4j
+public class DeadlineScanHandler implements RequestHandler<Map<String, Object>, Map<Level, Integer>> {
+
+    @Override
+    public Map<Level, Integer> handleRequest(Map<String, Object> event, Context context) {
+        // Starts the same Spring context as the API handler on the first invocation
+        ApplicationContext applicationContext = StreamLambdaHandler.applicationContext();
+        Map<Level, Integer> escalated = applicationContext.getBean(DeadlineScanner.class).scan(Instant.now());
+        log.info("deadline scan: {}", escalated);
+        // no EmfFlushFilter around this invocation, the sandbox may be frozen right after it
+        EmfMeterRegistry metrics = applicationContext.getBeanProvider(EmfMeterRegistry.class).getIfAvailable();
+        if (metrics != null) {
+            metrics.flush();
+        }
+        return escalated;
+    }
+}
@@ -0,0 +1,151 @@
+package org.example;
+
+import com.amazonaws.serverless.proxy.model.AwsProxyRequest;
+import com.amazonaws.serverless.proxy.model.AwsProxyResponse;
+import com.amazonaws.serverless.proxy.spring.SpringBootLambdaContainerHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.dto.AdminReportConversationResponse;
+import org.example.dto.CreateReportRequest;
+import org.example.dto.ReportPageResponse;
+import org.example.dto.ReportWithConversationResponse;
+import org.example.dto.SendMessageRequest;
+import org.example.model.ConversationMessage;
+import org.example.model.MessageSender;
+import org.example.model.ReportStatus;
+import org.example.model.WhistleblowerReport;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Warms up the request path before a SnapStart snapshot is taken and re-establishes
+ * network connections after the snapshot is restored. Everything done here ends up in
+ * the snapshot, so it must not leave state behind that is specific to this sandbox.
+ */
+@Slf4j
+final class SnapStartPriming {
+
+    private static final String PRIME_REPORT_ID = "00000000-0000-0000-0000-000000000000";
+
+    private SnapStartPriming() {
+    }
+
+    static void prime(SpringBootLambdaContainerHandler<AwsProxyRequest, AwsProxyResponse> handler) {
+        ApplicationContext context = applicationContext(handler);
+        primeJackson(context);
+
+        // Goes through the full servlet + security filter chain: /ping without a token is
+        // rejected by the bearer token filter, the empty file-urls batch reaches the controller
+        // and the JSON converters without touching Mongo or S3
+        proxy(handler, event("GET", "/ping", null));
+        proxy(handler, event("POST", "/whistleblower/file-urls", "[]"));
+    }
+
+    /**
+     * The Mongo pool still holds the sockets that were open when the snapshot was taken.
+     * The first command on a dead socket fails and makes the driver clear the pool,
+     * so the retry runs on a fresh connection.
+     */
+    static void reconnect(SpringBootLambdaContainerHandler<AwsProxyRequest, AwsProxyResponse> handler) {
+        MongoTemplate mongoTemplate = applicationContext(handler).getBean(MongoTemplate.class);
+        try {
+            mongoTemplate.executeCommand("{ ping: 1 }");
+        } catch (RuntimeException stale) {
+            log.info("Mongo ping after restore failed ({}), retrying on a new connection", stale.getMessage());
+            try {
+                mongoTemplate.executeCommand("{ ping: 1 }");
+            } catch (RuntimeException e) {
+                // A failing restore hook fails the whole restore; requests will reconnect on their own
+                log.warn("Mongo still unreachable after restore", e);
+            }
+        }
+    }
+
+    private static ApplicationContext applicationContext(
+            SpringBootLambdaContainerHandler<AwsProxyRequest, AwsProxyResponse> handler) {
+        return WebApplicationContextUtils.getRequiredWebApplicationContext(handler.getServletContext());
+    }
+
+    // Serializer lookup is cached per ObjectMapper, so warm the one Spring MVC actually writes responses with
+    private static void primeJackson(ApplicationContext context) {
+        ObjectMapper mapper = context.getBean(RequestMappingHandlerAdapter.class).getMessageConverters().stream()
+                .filter(MappingJackson2HttpMessageConverter.class::isInstance)
+                .map(converter -> ((MappingJackson2HttpMessageConverter) converter).getObjectMapper())
+                .findFirst()
+                .orElseGet(ObjectMapper::new);
+
+        Instant now = Instant.now();
+        WhistleblowerReport report = WhistleblowerReport.builder()
+                .reportId(PRIME_REPORT_ID)
+                .tenantId("prime")
+                .subject("prime")
+                .message("prime")
+                .attachments(List.of())
+                .status(ReportStatus.NEW)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        ConversationMessage message = ConversationMessage.builder()
+                .reportId(PRIME_REPORT_ID)
+                .seq(1)
+                .sender(MessageSender.REPORTER)
+                .message("prime")
+                .attachments(List.of())
+                .createdAt(now)
+                .build();
+
+        try {
+            mapper.writeValueAsBytes(ReportWithConversationResponse.builder()
+                    .report(report)
+                    .messages(List.of(message))
+                    .build());
+            mapper.writeValueAsBytes(AdminReportConversationResponse.builder()
+                    .messages(List.of(message))
+                    .build());
+            mapper.writeValueAsBytes(ReportPageResponse.builder()
+                    .reports(List.of())
+                    .build());
+            mapper.readValue("{\"tenantId\":\"prime\",\"subject\":\"prime\",\"message\":\"prime\",\"attachments\":[]}",
+                    CreateReportRequest.class);
+            mapper.readValue("{\"sender\":\"REPORTER\",\"message\":\"prime\",\"attachments\":[]}",
+                    SendMessageRequest.class);
+        } catch (Exception e) {
+            // Priming is best effort, a failure here must not break the snapshot
+            log.warn("Jackson priming failed", e);
+        }
+    }
+
+    private static String event(String method, String path, String body) {
+        return "{"
+                + "\"resource\":\"/{proxy+}\","
+                + "\"path\":\"" + path + "\","
+                + "\"httpMethod\":\"" + method + "\","
+                + "\"headers\":{\"Content-Type\":\"application/json\",\"Host\":\"localhost\"},"
+                + "\"multiValueHeaders\":{\"Content-Type\":[\"application/json\"],\"Host\":[\"localhost\"]},"
+                + "\"requestContext\":{\"resourcePath\":\"/{proxy+}\",\"httpMethod\":\"" + method + "\","
+                + "\"path\":\"" + path + "\",\"stage\":\"prime\",\"identity\":{\"sourceIp\":\"127.0.0.1\"}},"
+                + "\"body\":" + (body == null ? "null" : "\"" + body.replace("\"", "\\\"") + "\"") + ","
+                + "\"isBase64Encoded\":false"
+                + "}";
+    }
+
+    private static void proxy(SpringBootLambdaContainerHandler<AwsProxyRequest, AwsProxyResponse> handler,
+                              String event) {
+        try {
+            // The container never reads from the Lambda context, so none is needed outside a real invocation
+            handler.proxyStream(new ByteArrayInputStream(event.getBytes(StandardCharsets.UTF_8)),
+                    new ByteArrayOutputStream(), null);
+        } catch (Exception e) {
+            log.warn("Priming request failed", e);
+        }
+    }
+}
@@ -7,15 +7,30 @@ import com.amazonaws.serverless.proxy.model.AwsProxyResponse;
 import com.amazonaws.serverless.proxy.spring.SpringBootLambdaContainerHandler;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.crac.Core;
+import org.crac.Resource;
+import org.example.metrics.EmfMeterRegistry;
+import org.springframework.context.ApplicationContext;
+import org.springframework.web.context.support.WebApplicationContextUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
-public class StreamLambdaHandler implements RequestStreamHandler {
+@Slf4j
+public class StreamLambdaHandler implements RequestStreamHandler, Resource {
     private static SpringBootLambdaContainerHandler<AwsProxyRequest, AwsProxyResponse> handler;
+
+    // Startup timings, logged with a "startup" prefix so they can be pulled out of CloudWatch
+    private static final AtomicBoolean firstRequest = new AtomicBoolean(true);
+    private static volatile boolean restored;
+
     static {
+        long started = System.nanoTime();
         try {
             handler = SpringBootLambdaContainerHandler.getAwsProxyHandler(Application.class);
         } catch (ContainerInitializationException e) {
@@ -23,11 +38,57 @@ public class StreamLambdaHandler implements RequestStreamHandler {
             e.printStackTrace();
             throw new RuntimeException("Could not initialize Spring Boot application", e);
         }
+        log.info("startup init_ms={}", elapsedMillis(started));
+    }
+
+    public StreamLambdaHandler() {
+        // The runtime keeps this instance for the lifetime of the sandbox, which keeps the registration alive
+        Core.getGlobalContext().register(this);
     }
 
     @Override
     public void handleRequest(InputStream inputStream, OutputStream outputStream, Context context)
             throws IOException {
+        long started = System.nanoTime();
         handler.proxyStream(inputStream, outputStream, context);
+        if (firstRequest.compareAndSet(true, false)) {
+            log.info("startup first_request_ms={} restored={}", elapsedMillis(started), restored);
+        }
+    }
+
+    // SnapStart: runs once, before the snapshot of the initialized sandbox is taken
+    @Override
+    public void beforeCheckpoint(org.crac.Context<? extends Resource> context) {
+        long started = System.nanoTime();
+        // the priming requests must not show up in the latency metrics either
+        EmfMeterRegistry metrics = applicationContext().getBeanProvider(EmfMeterRegistry.class).getIfAvailable();
+        if (metrics != null) {
+            metrics.setMuted(true);
+        }
+        SnapStartPriming.prime(handler);
+        if (metrics != null) {
+            metrics.setMuted(false);
+        }
+        // the priming requests must not count as the first real request
+        firstRequest.set(true);
+        log.info("startup priming_ms={}", elapsedMillis(started));
+    }
+
+    // SnapStart: runs in every sandbox resumed from the snapshot
+    @Override
+    public void afterRestore(org.crac.Context<? extends Resource> context) {
+        long started = System.nanoTime();
+        restored = true;
+        SnapStartPriming.reconnect(handler);
+        log.info("startup restore_hook_ms={}", elapsedMillis(started));
+    }
+
+    // The Spring context started above, also used by handlers that are not HTTP requests (DeadlineScanHandler)
+    static ApplicationContext applicationContext() {
+        return WebApplicationContextUtils.getRequiredWebApplicationContext(handler.getServletContext());
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
     }
-}
\ No newline at end of file
+}
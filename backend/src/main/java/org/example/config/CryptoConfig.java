@@ -0,0 +1,61 @@
+package org.example.config;
+
+import org.example.crypto.DataKeyService;
+import org.example.crypto.FieldCipher;
+import org.example.crypto.FieldEncryptionCallbacks;
+import org.example.crypto.MasterKeyProvider;
+import org.example.crypto.StaticMasterKeyProvider;
+import org.example.repository.TenantDataKeyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import java.nio.file.Path;
+
+// Field-level envelope encryption of report and message text. On unless app.crypto.allow-plaintext
+// is set: without a master key the application refuses to start instead of storing plaintext
+@Configuration
+@ConditionalOnProperty(name = "app.crypto.allow-plaintext", havingValue = "false", matchIfMissing = true)
+public class CryptoConfig {
+
+    // Replace with another MasterKeyProvider bean (e.g. KMS) to keep the master key out of the process
+    @Bean
+    @ConditionalOnMissingBean(MasterKeyProvider.class)
+    public MasterKeyProvider masterKeyProvider(
+            @Value("${app.crypto.master-key:}") String key,
+            @Value("${app.crypto.master-key-file:}") String keyFile) {
+        if (!key.isBlank()) {
+            return StaticMasterKeyProvider.fromBase64(key);
+        }
+        if (!keyFile.isBlank()) {
+            return StaticMasterKeyProvider.fromFile(Path.of(keyFile));
+        }
+        throw new IllegalStateException("No master key: set app.crypto.master-key or app.crypto.master-key-file,"
+                + " or app.crypto.allow-plaintext=true to store text unencrypted");
+    }
+
+    // The repository is lazy: it needs the MongoTemplate, whose converter needs the encryption
+    // callbacks, which need this service
+    @Bean
+    public DataKeyService dataKeyService(
+            @Lazy TenantDataKeyRepository repository,
+            MasterKeyProvider masterKeyProvider,
+            @Value("${app.crypto.data-key-cache-size:1000}") int cacheSize,
+            @Value("${app.crypto.data-key-ttl-seconds:600}") long ttlSeconds,
+            @Value("${app.crypto.data-key-max-uses:1000000}") long maxUses) {
+        return new DataKeyService(repository, masterKeyProvider, cacheSize, ttlSeconds * 1000, maxUses);
+    }
+
+    @Bean
+    public FieldCipher fieldCipher(DataKeyService dataKeyService) {
+        return new FieldCipher(dataKeyService);
+    }
+
+    @Bean
+    public FieldEncryptionCallbacks fieldEncryptionCallbacks(FieldCipher fieldCipher) {
+        return new FieldEncryptionCallbacks(fieldCipher);
+    }
+}
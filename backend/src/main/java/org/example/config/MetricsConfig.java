@@ -0,0 +1,68 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.example.metrics.EmfFlushFilter;
+import org.example.metrics.EmfMeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Latency metrics for the hot paths. Spring Boot already times every request
+ * (http.server.requests, per endpoint), every repository call (spring.data.repository.invocations)
+ * and, through the listener MongoConfig installs, every Mongo command per collection
+ * (mongodb.driver.commands); the services add whistleblower.* timers for S3 and Cognito calls.
+ *
+ * Standalone, the meters are scraped from /actuator/prometheus as histograms. On Lambda (detected
+ * through AWS_LAMBDA_FUNCTION_NAME) they go to CloudWatch as EMF log lines instead.
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final List<String> LATENCY_METERS = List.of(
+            "http.server.requests",
+            "spring.data.repository.invocations",
+            "mongodb.driver.commands",
+            "whistleblower.");
+
+    // Histogram buckets let Prometheus compute p50/p99 across instances
+    @Bean
+    MeterFilter latencyHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (LATENCY_METERS.stream().noneMatch(id.getName()::startsWith)) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty("AWS_LAMBDA_FUNCTION_NAME")
+    EmfMeterRegistry emfMeterRegistry(
+            @Value("${app.metrics.emf.namespace:Whistleblower}") String namespace,
+            @Value("${app.metrics.emf.excluded-dimensions:cluster.id,server.address,exception}") Set<String> excludedDimensions) {
+        return new EmfMeterRegistry(namespace, excludedDimensions, System.out);
+    }
+
+    @Bean
+    @ConditionalOnProperty("AWS_LAMBDA_FUNCTION_NAME")
+    FilterRegistrationBean<EmfFlushFilter> emfFlushFilter(EmfMeterRegistry registry) {
+        FilterRegistrationBean<EmfFlushFilter> registration = new FilterRegistrationBean<>(new EmfFlushFilter(registry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -4,28 +4,66 @@ import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
 
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class MongoConfig extends AbstractMongoClientConfiguration {
 
     @org.springframework.beans.factory.annotation.Value("${spring.data.mongodb.uri}")
     private String connectionString;
 
+    // Boot's customizers, among them the Micrometer command listener (mongodb.driver.commands)
+    // that the hand-built client would otherwise miss
+    @org.springframework.beans.factory.annotation.Autowired
+    private ObjectProvider<MongoClientSettingsBuilderCustomizer> customizers;
+
+    // Connection pool, defaults are the driver's. A Lambda container serves one request at a time and
+    // never gets near them; the standalone profile sizes the pool for many concurrent requests
+    @org.springframework.beans.factory.annotation.Value("${app.mongo.pool.max-size:100}")
+    private int poolMaxSize;
+
+    @org.springframework.beans.factory.annotation.Value("${app.mongo.pool.min-size:0}")
+    private int poolMinSize;
+
+    // Requests beyond max-size wait this long for a connection before failing
+    @org.springframework.beans.factory.annotation.Value("${app.mongo.pool.max-wait-ms:120000}")
+    private long poolMaxWaitMs;
+
+    // Connections being opened at the same time, limits the connection storm after a burst
+    @org.springframework.beans.factory.annotation.Value("${app.mongo.pool.max-connecting:2}")
+    private int poolMaxConnecting;
+
     @Override
     protected String getDatabaseName() {
         return "whistleblower";
     }
 
+    // AbstractMongoClientConfiguration ignores spring.data.mongodb.auto-index-creation,
+    // so the @Indexed / @CompoundIndex definitions on the models are only applied if we opt in here
+    @Override
+    protected boolean autoIndexCreation() {
+        return true;
+    }
+
     @Override
     @Bean
     public MongoClient mongoClient() {
         ConnectionString connectionStringObj = new ConnectionString(connectionString);
-        MongoClientSettings mongoClientSettings = MongoClientSettings.builder()
-                .applyConnectionString(connectionStringObj)
-                .build();
-        return MongoClients.create(mongoClientSettings);
+        // Pool options given in the connection string (maxPoolSize=...) still win
+        MongoClientSettings.Builder builder = MongoClientSettings.builder()
+                .applyToConnectionPoolSettings(pool -> pool
+                        .maxSize(poolMaxSize)
+                        .minSize(poolMinSize)
+                        .maxWaitTime(poolMaxWaitMs, TimeUnit.MILLISECONDS)
+                        .maxConnecting(poolMaxConnecting))
+                .applyConnectionString(connectionStringObj);
+        customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+        return MongoClients.create(builder.build());
     }
 }
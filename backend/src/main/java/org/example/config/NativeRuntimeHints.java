@@ -0,0 +1,101 @@
+package org.example.config;
+
+import org.example.dto.AdminReportConversationResponse;
+import org.example.dto.CreateReportRequest;
+import org.example.dto.PresignUploadRequest;
+import org.example.dto.PresignedUploadResponse;
+import org.example.dto.ReportPageResponse;
+import org.example.dto.ReportWithConversationResponse;
+import org.example.dto.SendMessageRequest;
+import org.example.dto.TenantSummaryResponse;
+import org.example.error.ApiErrorResponse;
+import org.example.model.ApiResponse;
+import org.example.model.ConversationMessage;
+import org.example.model.DeadlineScanState;
+import org.example.model.MessageSender;
+import org.example.model.ReportStatus;
+import org.example.model.Tenant;
+import org.example.model.TenantCounters;
+import org.example.model.TenantDataKey;
+import org.example.model.WhistleblowerReport;
+import org.example.repository.projection.AdminReportDetails;
+import org.example.repository.projection.AdminReportView;
+import org.example.repository.projection.AttachmentsView;
+import org.example.repository.projection.DueReportView;
+import org.example.repository.projection.ReportListView;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aop.SpringProxy;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.data.projection.TargetAware;
+
+import java.util.List;
+
+/**
+ * Reachability metadata for the native image (-Pnative) that Spring AOT cannot infer on its own:
+ * MongoConfig scans no entity packages, so the mapped types are only discovered at runtime,
+ * the custom repository fragments map into projections through MongoTemplate instead of
+ * derived queries, and the AWS SDK looks up its HTTP client implementation by class name.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final MemberCategory[] BINDING = {
+            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+            MemberCategory.INVOKE_DECLARED_METHODS,
+            MemberCategory.DECLARED_FIELDS
+    };
+
+    // Mongo documents and everything serialized to or from JSON
+    private static final List<Class<?>> BOUND_TYPES = List.of(
+            WhistleblowerReport.class, ConversationMessage.class, Tenant.class, TenantCounters.class,
+            DeadlineScanState.class, TenantDataKey.class,
+            ReportStatus.class, MessageSender.class, ApiResponse.class,
+            AdminReportDetails.class,
+            CreateReportRequest.class, SendMessageRequest.class, PresignUploadRequest.class,
+            PresignedUploadResponse.class, ReportPageResponse.class,
+            ReportWithConversationResponse.class, AdminReportConversationResponse.class,
+            TenantSummaryResponse.class, ApiErrorResponse.class);
+
+    // Lombok builders are plain generated code, but Jackson and Spring Data can reach them by reflection
+    private static final List<Class<?>> BUILDERS = List.of(
+            WhistleblowerReport.WhistleblowerReportBuilder.class,
+            ConversationMessage.ConversationMessageBuilder.class,
+            Tenant.TenantBuilder.class,
+            TenantCounters.TenantCountersBuilder.class,
+            DeadlineScanState.DeadlineScanStateBuilder.class,
+            TenantDataKey.TenantDataKeyBuilder.class,
+            ApiResponse.ApiResponseBuilder.class,
+            ReportPageResponse.ReportPageResponseBuilder.class,
+            ReportWithConversationResponse.ReportWithConversationResponseBuilder.class,
+            AdminReportConversationResponse.AdminReportConversationResponseBuilder.class,
+            PresignedUploadResponse.PresignedUploadResponseBuilder.class,
+            TenantSummaryResponse.TenantSummaryResponseBuilder.class,
+            ApiErrorResponse.ApiErrorResponseBuilder.class);
+
+    // Interface projections are backed by JDK proxies created by Spring Data
+    private static final List<Class<?>> PROJECTIONS = List.of(
+            AdminReportView.class, ReportListView.class, AttachmentsView.class, DueReportView.class);
+
+    // The SDK jars ship their own native-image metadata, but pick the HTTP implementation through
+    // ServiceLoader / Class.forName, which is only reachable if the provider classes are registered
+    private static final List<String> SDK_HTTP_SERVICES = List.of(
+            "software.amazon.awssdk.http.apache.ApacheSdkHttpService",
+            "software.amazon.awssdk.http.urlconnection.UrlConnectionSdkHttpService");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        BOUND_TYPES.forEach(type -> hints.reflection().registerType(type, BINDING));
+        BUILDERS.forEach(type -> hints.reflection().registerType(type, BINDING));
+
+        for (Class<?> projection : PROJECTIONS) {
+            hints.reflection().registerType(projection, MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.proxies().registerJdkProxy(projection, TargetAware.class, SpringProxy.class, DecoratingProxy.class);
+        }
+
+        SDK_HTTP_SERVICES.forEach(service -> hints.reflection().registerType(
+                TypeReference.of(service), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS));
+        hints.resources().registerPattern("META-INF/services/software.amazon.awssdk.http.SdkHttpService");
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Background jobs (deadline scanner) only run in a long-lived process; on Lambda a frozen container
+// never fires timers, so EventBridge invokes DeadlineScanHandler on the same schedule instead
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "app.deadline-scanner.enabled", havingValue = "true")
+public class SchedulingConfig {
+}
@@ -28,6 +28,16 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // Admin-only routes under /whistleblower; the first matching rule wins, so they
+                        // have to come before the /whistleblower/** permitAll below
+                        .requestMatchers("/whistleblower/tenant/*/report/*/file-urls").authenticated()
+                        .requestMatchers("/whistleblower/tenant/*/report/*/read").authenticated()
+                        .requestMatchers("/whistleblower/tenant/*/summary").authenticated()
+                        .requestMatchers("/whistleblower/tenant/*/summary/reconcile").authenticated()
+                        .requestMatchers("/whistleblower/tenant/*/reports/page").authenticated()
+                        .requestMatchers("/whistleblower/admin/reconcileSummaries").authenticated()
+                        .requestMatchers("/whistleblower/admin/scanDeadlines").authenticated()
+
                         // Public endpoints (no auth required)
                         // Reporter/whistleblower endpoints are public
                         .requestMatchers("/whistleblower/anonymous/**").permitAll()
@@ -36,6 +46,8 @@ public class SecurityConfig {
                         .requestMatchers("/whistleblower/report/*/conversation").permitAll()
                         .requestMatchers("/whistleblower/reports/*/messages").permitAll()
                         .requestMatchers("/whistleblower/admin/**").permitAll()
+                        // Health and the Prometheus scrape; only exposed when running standalone (Application.main)
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
 
                         // Admin endpoints require authentication
                         // JWT token from Cognito will be validated automatically
@@ -0,0 +1,19 @@
+package org.example.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// Boot ignores spring.threads.virtual.enabled below Java 21 without a word, and the standalone server
+// would come up on Tomcat's 200 platform threads with a pool sized for thousands of requests
+@Configuration
+@Profile("standalone")
+public class StandaloneConfig {
+
+    public StandaloneConfig(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("spring.threads.virtual.enabled needs Java 21, this is Java "
+                    + Runtime.version() + "; build and run the standalone server with mvn -Pstandalone on a JDK 21");
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.example.service.SecretKeyLookup;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final SecretKeyLookup secretKeyLookup;
+
+    // Secret-key endpoints are public, so every lookup is rate limited per client before it runs.
+    // Behind API Gateway the remote address is the caller's source IP.
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                secretKeyLookup.acquire(request.getRemoteAddr());
+                return true;
+            }
+        }).addPathPatterns("/whistleblower/report/*/conversation", "/whistleblower/report/*/read");
+    }
+}
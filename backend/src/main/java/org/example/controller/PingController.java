@@ -7,6 +7,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import lombok.RequiredArgsConstructor;
+import org.example.service.TenantCache;
 
 @RestController
 @EnableWebMvc
@@ -14,6 +15,7 @@ import lombok.RequiredArgsConstructor;
 public class PingController {
 
     private final org.springframework.data.mongodb.core.MongoTemplate mongoTemplate;
+    private final TenantCache tenantCache;
 
     @RequestMapping(path = "/ping", method = RequestMethod.GET)
     public Map<String, String> ping() {
@@ -38,4 +40,9 @@ public class PingController {
             return "MongoDB NOT CONNECTED: " + ex.getMessage();
         }
     }
+
+    @GetMapping("/health/cache")
+    public Map<String, Object> cacheStats() {
+        return tenantCache.stats();
+    }
 }
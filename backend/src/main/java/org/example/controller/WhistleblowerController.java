@@ -4,6 +4,9 @@ import org.example.model.Tenant;
 import org.example.model.WhistleblowerReport;
 import org.example.service.ConversationService;
 import org.example.service.TenantService;
+import org.example.service.TenantSummaryService;
+import org.example.service.DeadlineScanner;
+import org.example.event.DeadlineEscalationEvent;
 import lombok.RequiredArgsConstructor;
 import org.example.service.S3Service;
 import org.springframework.web.bind.annotation.*;
@@ -11,16 +14,24 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.MediaType;
 import org.example.dto.CreateReportRequest;
+import org.example.dto.PresignUploadRequest;
+import org.example.dto.PresignedUploadResponse;
 import org.example.dto.SendMessageRequest;
 import org.example.model.ApiResponse;
 import org.example.model.ConversationMessage;
 import org.example.dto.ReportWithConversationResponse;
 import org.example.dto.AdminReportConversationResponse;
+import org.example.utility.MessageWindow;
+import org.example.error.ApiException;
+import org.example.dto.ReportPageResponse;
+import org.example.dto.TenantSummaryResponse;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 @CrossOrigin
 @RestController
@@ -94,6 +105,8 @@ public class WhistleblowerController {
         }
 
         private final ConversationService conversationService;
+        private final TenantSummaryService summaryService;
+        private final DeadlineScanner deadlineScanner;
 
         // Public – anonymous submit
         // Public – anonymous submit
@@ -108,11 +121,7 @@ public class WhistleblowerController {
 
                 if (files != null && !files.isEmpty()) {
                         System.out.println("DEBUG: Files received count: " + files.size());
-                        for (MultipartFile file : files) {
-                                System.out.println("DEBUG: Processing file: " + file.getOriginalFilename());
-                                String fileKey = s3Service.uploadFile(file);
-                                attachments.add(fileKey);
-                        }
+                        attachments.addAll(s3Service.uploadFiles(files));
                 } else {
                         System.out.println("DEBUG: Files list is null or empty");
                 }
@@ -120,8 +129,9 @@ public class WhistleblowerController {
                 // If JSON had attachments, we might want to keep or merge them.
                 // For this use case, we can assume the frontend sends empty attachments list
                 // and the image is the primary attachment.
-                // Or merge:
+                // Or merge (keys from a presigned upload must exist in S3):
                 if (req.getAttachments() != null) {
+                        s3Service.verifyUploaded(req.getAttachments());
                         attachments.addAll(req.getAttachments());
                 }
 
@@ -132,7 +142,38 @@ public class WhistleblowerController {
                                 attachments);
         }
 
-        // Get Tenant's Reports
+        // Public – anonymous submit, JSON only. Attachments were uploaded directly to S3
+        // through /uploads/presign and are referenced by key.
+        @PostMapping(value = "/anonymous/submitNewReport", consumes = MediaType.APPLICATION_JSON_VALUE)
+        public WhistleblowerReport createReportWithUploadedAttachments(
+                        @RequestBody CreateReportRequest req) throws IOException {
+
+                s3Service.verifyUploaded(req.getAttachments());
+
+                return conversationService.createReport(
+                                req.getTenantId(),
+                                req.getSubject(),
+                                req.getMessage(),
+                                req.getAttachments() != null ? req.getAttachments() : new ArrayList<>());
+        }
+
+        // Public – presigned PUT URLs for direct-to-S3 attachment uploads
+        @PostMapping("/uploads/presign")
+        public ResponseEntity<List<PresignedUploadResponse>> presignUploads(
+                        @RequestBody List<PresignUploadRequest> requests) {
+                if (requests.isEmpty() || requests.size() > 10) {
+                        throw new ApiException(400, "Between 1 and 10 files can be presigned at once");
+                }
+                List<PresignedUploadResponse> uploads = new ArrayList<>(requests.size());
+                for (PresignUploadRequest request : requests) {
+                        uploads.add(s3Service.presignUpload(request));
+                }
+                return ResponseEntity.ok(uploads);
+        }
+
+        // Get Tenant's Reports, every full document at once. Kept for existing API clients; the
+        // dashboard uses /reports/page, which does not load or decrypt message bodies
+        @Deprecated
         @GetMapping("/tenant/{tenantId}/reports")
         public ResponseEntity<List<WhistleblowerReport>> getReportsByTenant(
                         @PathVariable String tenantId) {
@@ -141,6 +182,50 @@ public class WhistleblowerController {
                                 conversationService.getAllReportForParticularTenant(tenantId));
         }
 
+        // Get Tenant's Reports, one keyset page at a time (pass nextCursor back as cursor)
+        @GetMapping("/tenant/{tenantId}/reports/page")
+        public ResponseEntity<ReportPageResponse> getReportPageByTenant(
+                        @PathVariable String tenantId,
+                        @RequestParam(required = false) String status,
+                        @RequestParam(required = false) String cursor,
+                        @RequestParam(required = false) Integer limit) {
+
+                return ResponseEntity.ok(
+                                conversationService.getReportPageForTenant(tenantId, status, cursor, limit));
+        }
+
+        // Dashboard counters of a tenant (per status, unread, overdue) without loading its reports
+        @GetMapping("/tenant/{tenantId}/summary")
+        public ResponseEntity<TenantSummaryResponse> getTenantSummary(@PathVariable String tenantId) {
+                return ResponseEntity.ok(summaryService.getSummary(tenantId));
+        }
+
+        // Rebuild a tenant's dashboard counters from its reports
+        @PostMapping("/tenant/{tenantId}/summary/reconcile")
+        public ResponseEntity<TenantSummaryResponse> reconcileTenantSummary(@PathVariable String tenantId) {
+                return ResponseEntity.ok(summaryService.reconcile(tenantId));
+        }
+
+        // Rebuild the dashboard counters of all tenants
+        @PostMapping("/admin/reconcileSummaries")
+        public ResponseEntity<ApiResponse<Void>> reconcileAllSummaries() {
+                summaryService.reconcileAll();
+                return ResponseEntity.ok(ApiResponse.<Void>builder()
+                                .status("success")
+                                .message("Tenant counters rebuilt")
+                                .build());
+        }
+
+        // Escalate NEW reports close to or past their acknowledgement deadline (on demand, Lambda runs it on a schedule)
+        @PostMapping("/admin/scanDeadlines")
+        public ResponseEntity<ApiResponse<Map<DeadlineEscalationEvent.Level, Integer>>> scanDeadlines() {
+                return ResponseEntity.ok(ApiResponse.<Map<DeadlineEscalationEvent.Level, Integer>>builder()
+                                .status("success")
+                                .message("Deadline scan completed")
+                                .data(deadlineScanner.scan(Instant.now()))
+                                .build());
+        }
+
         // Add new message to a report conversation
         // Add new message to a report conversation
         @PostMapping(value = "/reports/{reportId}/messages", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -152,13 +237,11 @@ public class WhistleblowerController {
 
                 List<String> attachments = new ArrayList<>();
                 if (files != null && !files.isEmpty()) {
-                        for (MultipartFile file : files) {
-                                String fileKey = s3Service.uploadFile(file);
-                                attachments.add(fileKey);
-                        }
+                        attachments.addAll(s3Service.uploadFiles(files));
                 }
 
                 if (request.getAttachments() != null) {
+                        s3Service.verifyUploaded(request.getAttachments());
                         attachments.addAll(request.getAttachments());
                 }
 
@@ -172,13 +255,57 @@ public class WhistleblowerController {
 
         }
 
+        // Add new message, JSON only (attachments uploaded directly to S3 beforehand)
+        @PostMapping(value = "/reports/{reportId}/messages", consumes = MediaType.APPLICATION_JSON_VALUE)
+        public ResponseEntity<ConversationMessage> sendNewMessageWithUploadedAttachments(
+                        @PathVariable String reportId,
+                        @RequestBody SendMessageRequest request) throws IOException {
+
+                s3Service.verifyUploaded(request.getAttachments());
+
+                ConversationMessage message = conversationService.addMessage(
+                                reportId,
+                                request.getSender(),
+                                request.getMessage(),
+                                request.getAttachments() != null ? request.getAttachments() : new ArrayList<>());
+
+                return ResponseEntity.ok(message);
+        }
+
         // Todo: Get conversation for the admin
         @GetMapping("/tenant/{tenantId}/report/{reportId}/conversation")
+        // since: only messages after that seq (polling), before: older page, default: newest messages
         public ResponseEntity<AdminReportConversationResponse> getReportConversation(
                         @PathVariable String tenantId,
-                        @PathVariable String reportId) {
+                        @PathVariable String reportId,
+                        @RequestParam(required = false) Long since,
+                        @RequestParam(required = false) Long before,
+                        @RequestParam(required = false) Integer limit) {
                 return ResponseEntity.ok(
-                                conversationService.getReportWithConversation(tenantId, reportId));
+                                conversationService.getReportWithConversation(tenantId, reportId,
+                                                MessageWindow.of(since, before, limit)));
+        }
+
+        // Admin read the conversation: mark all reporter messages of the report as read
+        @PostMapping("/tenant/{tenantId}/report/{reportId}/read")
+        public ResponseEntity<ApiResponse<Long>> markReportRead(
+                        @PathVariable String tenantId,
+                        @PathVariable String reportId) {
+                return ResponseEntity.ok(ApiResponse.<Long>builder()
+                                .status("success")
+                                .message("Messages marked as read")
+                                .data(conversationService.markReporterMessagesRead(tenantId, reportId))
+                                .build());
+        }
+
+        // Reporter read the conversation: mark all compliance team messages as read
+        @PostMapping("/report/{secretKey}/read")
+        public ResponseEntity<ApiResponse<Long>> markConversationRead(@PathVariable String secretKey) {
+                return ResponseEntity.ok(ApiResponse.<Long>builder()
+                                .status("success")
+                                .message("Messages marked as read")
+                                .data(conversationService.markComplianceMessagesRead(secretKey))
+                                .build());
         }
 
         // Update Report Status (Manual)
@@ -193,9 +320,13 @@ public class WhistleblowerController {
         // Public – access by secret key
         @GetMapping("/report/{secretKey}/conversation")
         public ResponseEntity<ReportWithConversationResponse> getConversation(
-                        @PathVariable String secretKey) {
+                        @PathVariable String secretKey,
+                        @RequestParam(required = false) Long since,
+                        @RequestParam(required = false) Long before,
+                        @RequestParam(required = false) Integer limit) {
                 return ResponseEntity.ok(
-                                conversationService.getConversationBySecretKey(secretKey));
+                                conversationService.getConversationBySecretKey(secretKey,
+                                                MessageWindow.of(since, before, limit)));
         }
 
         // Get Presigned URL for file
@@ -207,4 +338,22 @@ public class WhistleblowerController {
                 return ResponseEntity.ok(url);
         }
 
+        // Get Presigned URLs for all keys of a conversation in one call (key -> url)
+        @PostMapping("/file-urls")
+        public ResponseEntity<Map<String, String>> getFileUrls(@RequestBody List<String> keys) {
+                if (keys.size() > 100) {
+                        throw new ApiException(400, "At most 100 keys can be presigned at once");
+                }
+                return ResponseEntity.ok(s3Service.getPresignedUrls(keys));
+        }
+
+        // Get Presigned URLs for every attachment of a report and its messages (admin)
+        @GetMapping("/tenant/{tenantId}/report/{reportId}/file-urls")
+        public ResponseEntity<Map<String, String>> getReportFileUrls(
+                        @PathVariable String tenantId,
+                        @PathVariable String reportId) {
+                return ResponseEntity.ok(s3Service.getPresignedUrls(
+                                conversationService.getAttachmentKeys(tenantId, reportId)));
+        }
+
 }
\ No newline at end of file
@@ -0,0 +1,162 @@
+package org.example.crypto;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.model.TenantDataKey;
+import org.example.repository.TenantDataKeyRepository;
+import org.example.utility.TtlCache;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-tenant data keys from tenant_data_keys, unwrapped once and cached.
+ *
+ * A key encrypts at most maxUses values across all processes, which keeps the number of random
+ * GCM IVs per key far from the collision bound: a process reserves blocks of uses on the stored
+ * key (tenant_data_keys.reservedUses) and leases one block at a time, for a bounded time. When a
+ * block runs out the next one is reserved, when the key has none left a fresh key is generated;
+ * when the lease expires the tenant's newest key is loaded again. Uses left in an expired block
+ * are lost, so a key rotates somewhat before maxUses encryptions. Keys only used for decryption
+ * are cached by keyId with the same lifetime.
+ *
+ * Renewals run outside any lock: one thread per tenant does the I/O, the others wait for its
+ * result, and other tenants are not held up.
+ */
+@Slf4j
+public class DataKeyService implements DataKeySource {
+
+    // Uses reserved at a time, a fraction of maxUses so a key is shared by many processes
+    private static final long BLOCKS_PER_KEY = 100;
+
+    private final TenantDataKeyRepository repository;
+    private final MasterKeyProvider masterKey;
+    private final long maxUses;
+    private final long blockSize;
+
+    private final TtlCache<String, Lease> encryptionKeys;  // tenantId -> current lease
+    private final TtlCache<String, DataKey> decryptionKeys; // keyId -> key
+    private final ConcurrentHashMap<String, CompletableFuture<Lease>> renewals = new ConcurrentHashMap<>();
+
+    public DataKeyService(TenantDataKeyRepository repository, MasterKeyProvider masterKey,
+            int maxCachedKeys, long ttlMillis, long maxUses) {
+        this.repository = repository;
+        this.masterKey = masterKey;
+        this.maxUses = maxUses;
+        this.blockSize = Math.max(1, maxUses / BLOCKS_PER_KEY);
+        this.encryptionKeys = new TtlCache<>(maxCachedKeys, ttlMillis);
+        this.decryptionKeys = new TtlCache<>(maxCachedKeys, ttlMillis);
+    }
+
+    @Override
+    public DataKey forEncryption(String tenantId) {
+        Lease lease = encryptionKeys.get(tenantId);
+        while (lease == null || !lease.tryUse()) {
+            lease = renew(tenantId, lease);
+        }
+        return lease.key;
+    }
+
+    // Replaces the tenant's lease (null: expired or never loaded), or waits for the thread doing it
+    private Lease renew(String tenantId, Lease used) {
+        CompletableFuture<Lease> renewal = new CompletableFuture<>();
+        CompletableFuture<Lease> running = renewals.putIfAbsent(tenantId, renewal);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            // a renewal may have finished between our read of the cache and putIfAbsent
+            Lease current = encryptionKeys.get(tenantId);
+            Lease renewed = current != null && current != used ? current : newLease(tenantId, used);
+            encryptionKeys.put(tenantId, renewed);
+            decryptionKeys.put(renewed.key.keyId(), renewed.key);
+            renewal.complete(renewed);
+            return renewed;
+        } catch (RuntimeException e) {
+            renewal.completeExceptionally(e);
+            throw e;
+        } finally {
+            renewals.remove(tenantId, renewal);
+        }
+    }
+
+    private Lease newLease(String tenantId, Lease used) {
+        if (used != null) {
+            // block used up: the next one of the same key, if it has any left
+            return repository.reserveUses(used.key.keyId(), blockSize, maxUses)
+                    ? new Lease(used.key, blockSize)
+                    : new Lease(create(tenantId), blockSize);
+        }
+        return repository.findFirstByTenantIdOrderByCreatedAtDesc(tenantId)
+                .filter(stored -> repository.reserveUses(stored.getKeyId(), blockSize, maxUses))
+                .map(stored -> new Lease(unwrap(stored), blockSize))
+                .orElseGet(() -> new Lease(create(tenantId), blockSize));
+    }
+
+    private static Lease await(CompletableFuture<Lease> renewal) {
+        try {
+            return renewal.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public SecretKey forDecryption(String keyId) {
+        DataKey key = decryptionKeys.get(keyId);
+        if (key == null) {
+            key = repository.findById(keyId)
+                    .map(this::unwrap)
+                    .orElseThrow(() -> new IllegalStateException("Unknown data key " + keyId));
+            decryptionKeys.put(keyId, key);
+        }
+        return key.key();
+    }
+
+    private DataKey create(String tenantId) {
+        SecretKey key = AesGcm.newKey();
+        TenantDataKey stored = repository.insert(TenantDataKey.builder()
+                .keyId(UUID.randomUUID().toString())
+                .tenantId(tenantId)
+                .wrappedKey(masterKey.wrap(key.getEncoded()))
+                .masterKeyId(masterKey.keyId())
+                .createdAt(Instant.now())
+                .reservedUses(blockSize) // the first block is this process's
+                .build());
+        log.info("created data key {} for tenant {}", stored.getKeyId(), tenantId);
+        return new DataKey(stored.getKeyId(), key);
+    }
+
+    private DataKey unwrap(TenantDataKey stored) {
+        if (!masterKey.keyId().equals(stored.getMasterKeyId())) {
+            throw new IllegalStateException("Data key " + stored.getKeyId() + " was wrapped with master key "
+                    + stored.getMasterKeyId() + ", configured is " + masterKey.keyId());
+        }
+        byte[] raw = masterKey.unwrap(stored.getWrappedKey());
+        return new DataKey(stored.getKeyId(), new SecretKeySpec(raw, AesGcm.ALGORITHM));
+    }
+
+    private static final class Lease {
+
+        private final DataKey key;
+        private final long reserved;
+        private final AtomicLong uses = new AtomicLong();
+
+        private Lease(DataKey key, long reserved) {
+            this.key = key;
+            this.reserved = reserved;
+        }
+
+        private boolean tryUse() {
+            return uses.incrementAndGet() <= reserved;
+        }
+    }
+}
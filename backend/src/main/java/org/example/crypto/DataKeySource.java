@@ -0,0 +1,17 @@
+package org.example.crypto;
+
+import javax.crypto.SecretKey;
+
+// Where FieldCipher gets its keys from, see DataKeyService
+public interface DataKeySource {
+
+    /**
+     * Key to encrypt a new value of the tenant with.
+     */
+    DataKey forEncryption(String tenantId);
+
+    /**
+     * Key a stored value was encrypted with.
+     */
+    SecretKey forDecryption(String keyId);
+}
@@ -0,0 +1,52 @@
+package org.example.crypto;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encrypts single text fields as {@code enc:v1:<keyId>:<base64(IV || ciphertext || tag)>}.
+ * The keyId doubles as AAD, so a value cannot be moved under another key. Values without the
+ * prefix are returned as they are, which keeps documents written before encryption readable.
+ */
+public class FieldCipher {
+
+    private static final String PREFIX = "enc:v1:";
+
+    private final DataKeySource keys;
+
+    public FieldCipher(DataKeySource keys) {
+        this.keys = keys;
+    }
+
+    public String encrypt(String tenantId, String plaintext) {
+        if (plaintext == null || isEncrypted(plaintext)) {
+            return plaintext;
+        }
+        DataKey key = keys.forEncryption(tenantId);
+        byte[] sealed = AesGcm.encrypt(key.key(), plaintext.getBytes(StandardCharsets.UTF_8), aad(key.keyId()));
+        return PREFIX + key.keyId() + ":" + Base64.getEncoder().encodeToString(sealed);
+    }
+
+    public String decrypt(String value) {
+        if (value == null || !isEncrypted(value)) {
+            return value;
+        }
+        int separator = value.indexOf(':', PREFIX.length());
+        if (separator < 0) {
+            throw new IllegalStateException("Malformed encrypted value");
+        }
+        String keyId = value.substring(PREFIX.length(), separator);
+        SecretKey key = keys.forDecryption(keyId);
+        byte[] sealed = Base64.getDecoder().decode(value.substring(separator + 1));
+        return new String(AesGcm.decrypt(key, sealed, aad(keyId)), StandardCharsets.UTF_8);
+    }
+
+    public static boolean isEncrypted(String value) {
+        return value.startsWith(PREFIX);
+    }
+
+    private static byte[] aad(String keyId) {
+        return keyId.getBytes(StandardCharsets.UTF_8);
+    }
+}
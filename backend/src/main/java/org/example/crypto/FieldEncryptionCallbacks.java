@@ -0,0 +1,57 @@
+package org.example.crypto;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.example.model.ConversationMessage;
+import org.example.model.WhistleblowerReport;
+import org.example.repository.projection.AdminReportDetails;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveCallback;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+
+/**
+ * Encrypts report and message text on the way into MongoDB and decrypts it on the way out, so
+ * services and controllers only ever see plaintext. The entity is encrypted in place before it
+ * is converted and decrypted again after the save, so the object returned by save() is plaintext.
+ */
+@RequiredArgsConstructor
+public class FieldEncryptionCallbacks
+        implements BeforeConvertCallback<Object>, AfterSaveCallback<Object>, AfterConvertCallback<Object> {
+
+    private final FieldCipher cipher;
+
+    @Override
+    public Object onBeforeConvert(Object entity, String collection) {
+        if (entity instanceof WhistleblowerReport report) {
+            report.setMessage(cipher.encrypt(report.getTenantId(), report.getMessage()));
+        } else if (entity instanceof ConversationMessage message && message.getTenantId() != null) {
+            message.setMessage(cipher.encrypt(message.getTenantId(), message.getMessage()));
+        }
+        return entity;
+    }
+
+    @Override
+    public Object onAfterSave(Object entity, Document document, String collection) {
+        return decrypt(entity);
+    }
+
+    @Override
+    public Object onAfterConvert(Object entity, Document document, String collection) {
+        return decrypt(entity);
+    }
+
+    private Object decrypt(Object entity) {
+        if (entity instanceof WhistleblowerReport report) {
+            report.setMessage(cipher.decrypt(report.getMessage()));
+        } else if (entity instanceof ConversationMessage message) {
+            message.setMessage(cipher.decrypt(message.getMessage()));
+        } else if (entity instanceof AdminReportDetails details) {
+            // report and its $lookup-ed messages are converted as one document
+            details.setMessage(cipher.decrypt(details.getMessage()));
+            if (details.getMessages() != null) {
+                details.getMessages().forEach(message -> message.setMessage(cipher.decrypt(message.getMessage())));
+            }
+        }
+        return entity;
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.crypto;
+
+/**
+ * Wraps and unwraps tenant data keys with a master key that never leaves the provider.
+ * Implementations: {@link StaticMasterKeyProvider} (key from the environment or a file); a KMS-backed
+ * provider plugs in as another bean of this type.
+ */
+public interface MasterKeyProvider {
+
+    // Identifies the master key a data key was wrapped with, stored next to the wrapped key
+    String keyId();
+
+    byte[] wrap(byte[] dataKey);
+
+    byte[] unwrap(byte[] wrappedKey);
+}
@@ -0,0 +1,78 @@
+package org.example.crypto;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Master key held by the process: a base64-encoded 256-bit AES key, e.g. created with
+ * {@code openssl rand -base64 32}. Deployed, the value comes from a Secrets Manager secret the
+ * template resolves into the environment; locally and in tests it can be read from a file.
+ * The key sits in the process memory and in the function configuration, which is what a
+ * KMS-backed provider would avoid.
+ */
+public class StaticMasterKeyProvider implements MasterKeyProvider {
+
+    private static final byte[] AAD = "tenant-data-key".getBytes(StandardCharsets.UTF_8);
+
+    private final SecretKey masterKey;
+    private final String keyId;
+
+    private StaticMasterKeyProvider(byte[] raw) {
+        if (raw.length != 32) {
+            throw new IllegalStateException("Master key must be 32 bytes, got " + raw.length);
+        }
+        this.masterKey = new SecretKeySpec(raw, AesGcm.ALGORITHM);
+        // Fingerprint, so a data key wrapped with another master key is recognized as such. The
+        // prefix dates from when the key could only come from a file and stays, so data keys
+        // wrapped back then still match
+        this.keyId = "file:" + fingerprint(raw);
+    }
+
+    public static StaticMasterKeyProvider fromBase64(String value) {
+        try {
+            return new StaticMasterKeyProvider(Base64.getDecoder().decode(value.trim()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Master key is not valid base64", e);
+        }
+    }
+
+    public static StaticMasterKeyProvider fromFile(Path keyFile) {
+        try {
+            return fromBase64(Files.readString(keyFile));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read master key file " + keyFile, e);
+        }
+    }
+
+    @Override
+    public String keyId() {
+        return keyId;
+    }
+
+    @Override
+    public byte[] wrap(byte[] dataKey) {
+        return AesGcm.encrypt(masterKey, dataKey, AAD);
+    }
+
+    @Override
+    public byte[] unwrap(byte[] wrappedKey) {
+        return AesGcm.decrypt(masterKey, wrappedKey, AAD);
+    }
+
+    private static String fingerprint(byte[] key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key);
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
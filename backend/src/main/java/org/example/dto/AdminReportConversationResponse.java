@@ -13,4 +13,7 @@ import java.util.List;
 public class AdminReportConversationResponse {
     private AdminReportView report;
     private List<ConversationMessage> messages;
+
+    // More messages exist past this window: newer ones when paging with "since", older ones otherwise
+    private boolean hasMore;
 }
@@ -0,0 +1,10 @@
+package org.example.dto;
+
+import lombok.Data;
+
+@Data
+public class PresignUploadRequest {
+    private String fileName;
+    private String contentType;
+    private Long size; // bytes, signed into the URL
+}
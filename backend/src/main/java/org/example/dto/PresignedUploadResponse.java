@@ -0,0 +1,18 @@
+package org.example.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@Builder
+public class PresignedUploadResponse {
+
+    private String key;                 // pass back in "attachments" once the PUT succeeded
+    private String url;
+    private String method;              // always PUT
+    private Map<String, String> headers; // must be sent unchanged with the PUT
+    private Instant expiresAt;
+}
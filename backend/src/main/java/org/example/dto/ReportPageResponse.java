@@ -0,0 +1,16 @@
+package org.example.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import org.example.repository.projection.ReportListView;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ReportPageResponse {
+
+    private List<ReportListView> reports;
+    private String nextCursor; // null on the last page
+    private boolean hasMore;
+}
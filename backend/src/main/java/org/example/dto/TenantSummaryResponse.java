@@ -0,0 +1,20 @@
+package org.example.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import org.example.model.ReportStatus;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@Builder
+public class TenantSummaryResponse {
+
+    private String tenantId;
+    private long total;
+    private Map<ReportStatus, Long> byStatus; // every status, 0 when there are none
+    private long unreadMessages;
+    private long overdue;       // NEW and past deadlineAt, counted at request time
+    private Instant updatedAt;  // last change of the counters
+}
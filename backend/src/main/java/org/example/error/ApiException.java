@@ -11,4 +11,9 @@ public class ApiException extends RuntimeException {
         super(message);
         this.statusCode = statusCode;
     }
+
+    protected ApiException(int statusCode, String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+        this.statusCode = statusCode;
+    }
 }
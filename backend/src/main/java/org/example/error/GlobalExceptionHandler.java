@@ -15,6 +15,24 @@ import lombok.extern.slf4j.Slf4j;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+        // Expected client errors (probing for secret keys, rate limits): no log line, no stack trace
+        @ExceptionHandler(QuietApiException.class)
+        public ResponseEntity<ApiErrorResponse> handleQuietApiException(
+                        QuietApiException ex,
+                        HttpServletRequest request) {
+                HttpStatus status = HttpStatus.valueOf(ex.getStatusCode());
+
+                ApiErrorResponse response = ApiErrorResponse.builder()
+                                .timestamp(Instant.now().toString())
+                                .status(ex.getStatusCode())
+                                .error(status.getReasonPhrase())
+                                .message(ex.getMessage())
+                                .path(request.getRequestURI())
+                                .build();
+
+                return new ResponseEntity<>(response, status);
+        }
+
         @ExceptionHandler(ApiException.class)
         public ResponseEntity<ApiErrorResponse> handleApiException(
                         ApiException ex,
@@ -0,0 +1,13 @@
+package org.example.error;
+
+/**
+ * ApiException for expected, high-volume client errors (wrong secret key, rate limited).
+ * It captures no stack trace, so it is cheap to throw and can be shared as a constant, and
+ * GlobalExceptionHandler answers it without logging.
+ */
+public class QuietApiException extends ApiException {
+
+    public QuietApiException(int statusCode, String message) {
+        super(statusCode, message, false);
+    }
+}
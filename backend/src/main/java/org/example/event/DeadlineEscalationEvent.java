@@ -0,0 +1,22 @@
+package org.example.event;
+
+import lombok.Value;
+import org.example.repository.projection.DueReportView;
+
+import java.util.List;
+
+/**
+ * One batch of NEW reports whose acknowledgement deadline (HinSchG, 7 days) is close or has passed,
+ * published by the deadline scanner. Each report is part of at most one event per level.
+ */
+@Value
+public class DeadlineEscalationEvent {
+
+    public enum Level {
+        APPROACHING, // deadline within the warning window
+        OVERDUE      // deadline passed
+    }
+
+    Level level;
+    List<DueReportView> reports;
+}
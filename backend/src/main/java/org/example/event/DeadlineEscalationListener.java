@@ -0,0 +1,23 @@
+package org.example.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.repository.projection.DueReportView;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Default consumer of the escalation batches; notifications hook in as further listeners
+@Slf4j
+@Component
+public class DeadlineEscalationListener {
+
+    @EventListener
+    public void onEscalation(DeadlineEscalationEvent event) {
+        Map<String, Long> perTenant = event.getReports().stream()
+                .collect(Collectors.groupingBy(DueReportView::getTenantId, Collectors.counting()));
+        perTenant.forEach((tenantId, count) ->
+                log.warn("deadline {}: tenant {} has {} unacknowledged report(s)", event.getLevel(), tenantId, count));
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Flushes the EMF registry once the request is done. It has to be the outermost filter, so that
+ * http.server.requests, recorded when the observation filter inside it returns, is part of the flush.
+ * A Lambda sandbox serves one request at a time and may be frozen right after, in both the JVM
+ * handler and the native custom runtime, so there is no later point to flush at.
+ */
+@RequiredArgsConstructor
+public class EmfFlushFilter extends OncePerRequestFilter {
+
+    private final EmfMeterRegistry registry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            registry.flush();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.example.metrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.cumulative.CumulativeTimer;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.pause.PauseDetector;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meter registry for Lambda: every timer keeps the raw durations it recorded since the last
+ * {@link #flush()}, which writes them to stdout as CloudWatch Embedded Metric Format documents.
+ * CloudWatch extracts the metrics from the log lines and computes p50/p99 from the raw values, so no
+ * histogram is kept here and nothing runs between invocations. Counters are written as the delta
+ * since the previous flush; other meter types are not exported.
+ */
+public class EmfMeterRegistry extends SimpleMeterRegistry {
+
+    // CloudWatch accepts at most 100 values per metric in one document
+    private static final int MAX_VALUES_PER_DOCUMENT = 100;
+
+    // Bounds the values a timer holds when flush is not called for a while
+    private static final int MAX_BUFFERED_VALUES = 10_000;
+
+    // CloudWatch computes the percentiles from the raw values, a local histogram would be wasted
+    private static final DistributionStatisticConfig WITHOUT_HISTOGRAM = DistributionStatisticConfig.builder()
+            .percentilesHistogram(false)
+            .percentiles()
+            .serviceLevelObjectives()
+            .build();
+
+    private final String namespace;
+    private final Set<String> excludedDimensions;
+    private final PrintStream out;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<Meter.Id, Double> flushedCounts = new ConcurrentHashMap<>();
+
+    private volatile boolean muted;
+
+    /**
+     * @param excludedDimensions tags written as plain properties instead of dimensions, for
+     *                           high-cardinality values that would create a metric each
+     */
+    public EmfMeterRegistry(String namespace, Set<String> excludedDimensions, PrintStream out) {
+        super(SimpleConfig.DEFAULT, Clock.SYSTEM);
+        this.namespace = namespace;
+        this.excludedDimensions = excludedDimensions;
+        this.out = out;
+    }
+
+    @Override
+    protected Timer newTimer(Meter.Id id, DistributionStatisticConfig distributionStatisticConfig,
+            PauseDetector pauseDetector) {
+        return new BufferingTimer(id, clock, WITHOUT_HISTOGRAM.merge(distributionStatisticConfig),
+                pauseDetector, getBaseTimeUnit());
+    }
+
+    /**
+     * Writes everything recorded since the previous flush. Called by {@link EmfFlushFilter} after
+     * each request, before the sandbox is frozen.
+     */
+    public synchronized void flush() {
+        if (muted) {
+            discard();
+            return;
+        }
+        long timestamp = clock.wallTime();
+        for (Meter meter : getMeters()) {
+            if (meter instanceof BufferingTimer timer) {
+                List<Double> values = timer.drain();
+                for (int from = 0; from < values.size(); from += MAX_VALUES_PER_DOCUMENT) {
+                    int to = Math.min(values.size(), from + MAX_VALUES_PER_DOCUMENT);
+                    write(timestamp, timer.getId(), "Milliseconds", values.subList(from, to));
+                }
+            } else if (meter instanceof Counter counter) {
+                double delta = countSinceLastFlush(counter);
+                if (delta > 0) {
+                    write(timestamp, counter.getId(), "Count", delta);
+                }
+            }
+        }
+    }
+
+    /**
+     * While muted, flushes drop what was recorded instead of writing it (SnapStart priming requests).
+     */
+    public void setMuted(boolean muted) {
+        this.muted = muted;
+    }
+
+    private void discard() {
+        for (Meter meter : getMeters()) {
+            if (meter instanceof BufferingTimer timer) {
+                timer.drain();
+            } else if (meter instanceof Counter counter) {
+                countSinceLastFlush(counter);
+            }
+        }
+    }
+
+    private double countSinceLastFlush(Counter counter) {
+        double count = counter.count();
+        Double previous = flushedCounts.put(counter.getId(), count);
+        return count - (previous == null ? 0 : previous);
+    }
+
+    private void write(long timestamp, Meter.Id id, String unit, Object value) {
+        Map<String, Object> document = new LinkedHashMap<>();
+        List<String> dimensions = new ArrayList<>();
+        for (Tag tag : id.getTagsAsIterable()) {
+            document.put(tag.getKey(), tag.getValue());
+            if (!excludedDimensions.contains(tag.getKey())) {
+                dimensions.add(tag.getKey());
+            }
+        }
+        document.put(id.getName(), value);
+        document.put("_aws", Map.of(
+                "Timestamp", timestamp,
+                "CloudWatchMetrics", List.of(Map.of(
+                        "Namespace", namespace,
+                        "Dimensions", List.of(dimensions),
+                        "Metrics", List.of(Map.of("Name", id.getName(), "Unit", unit))))));
+        try {
+            // Straight to stdout: the line must be the bare JSON document for CloudWatch to parse it
+            out.println(mapper.writeValueAsString(document));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static final class BufferingTimer extends CumulativeTimer {
+
+        private List<Double> values = new ArrayList<>();
+
+        BufferingTimer(Meter.Id id, Clock clock, DistributionStatisticConfig config, PauseDetector pauseDetector,
+                TimeUnit baseTimeUnit) {
+            super(id, clock, config, pauseDetector, baseTimeUnit);
+        }
+
+        @Override
+        protected void recordNonNegative(long amount, TimeUnit unit) {
+            super.recordNonNegative(amount, unit);
+            synchronized (this) {
+                if (values.size() < MAX_BUFFERED_VALUES) {
+                    values.add(unit.toNanos(amount) / 1_000_000d);
+                }
+            }
+        }
+
+        synchronized List<Double> drain() {
+            List<Double> drained = values;
+            values = new ArrayList<>();
+            return drained;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.example.model;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -9,6 +10,12 @@ import java.time.Instant;
 import java.util.List;
 
 @Document(collection = "conversation_messages")
+// Serves incremental sync (seq > since) and newest-first paging per report
+@CompoundIndex(name = "report_seq_idx", def = "{'reportId': 1, 'seq': 1}")
+// WebSocket replay from a message id stored before seq existed (connection module)
+@CompoundIndex(name = "report_created_idx", def = "{'reportId': 1, 'createdAt': 1}")
+// Mark-read and unread recounts; read messages drop out of the index
+@CompoundIndex(name = "report_unread_idx", def = "{'reportId': 1, 'sender': 1}", partialFilter = "{'readOrUnRead': false}")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,6 +28,10 @@ public class ConversationMessage {
     @Indexed
     private String reportId;   // FK → WhistleblowerReport.reportId
 
+    private String tenantId;   // selects the data key the message is encrypted with
+
+    private long seq;          // per-report, monotonic (allocated from WhistleblowerReport.messageSeq)
+
     private MessageSender sender; // WHISTLEBLOWER | ADMIN
 
     private String message;       // encrypted text
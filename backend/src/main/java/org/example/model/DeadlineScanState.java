@@ -0,0 +1,25 @@
+package org.example.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// How far the deadline scanner got per escalation level, so every report is escalated once per level
+@Document(collection = "deadline_scan_state")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DeadlineScanState {
+
+    @Id
+    private String level;
+
+    // Position of the last escalated report
+    private Instant deadlineAt;
+    private String reportId;
+
+    private Instant updatedAt;
+}
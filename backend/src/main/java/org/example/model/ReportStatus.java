@@ -1,9 +1,36 @@
 package org.example.model;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum ReportStatus {
     NEW,
     RECEIVED,
     IN_PROGRESS,
     CLOSED,
-    CANCELED
+    CANCELED;
+
+    // Transition table: target status -> statuses a report may currently be in to move there.
+    // Applied as a conditional update ({status: {$in: allowedFrom}}), so concurrent writers
+    // can never move a report along a transition that is not listed here.
+    private static final Map<ReportStatus, Set<ReportStatus>> ALLOWED_FROM = new EnumMap<>(ReportStatus.class);
+
+    static {
+        ALLOWED_FROM.put(NEW, EnumSet.noneOf(ReportStatus.class)); // initial status only
+        ALLOWED_FROM.put(RECEIVED, EnumSet.of(NEW));
+        ALLOWED_FROM.put(IN_PROGRESS, EnumSet.of(NEW, RECEIVED, CLOSED, CANCELED)); // incl. reopening
+        ALLOWED_FROM.put(CLOSED, EnumSet.of(NEW, RECEIVED, IN_PROGRESS));
+        ALLOWED_FROM.put(CANCELED, EnumSet.of(NEW, RECEIVED, IN_PROGRESS));
+    }
+
+    public Set<ReportStatus> allowedFrom() {
+        return Collections.unmodifiableSet(ALLOWED_FROM.get(this));
+    }
+
+    public boolean isTerminal() {
+        return this == CLOSED || this == CANCELED;
+    }
 }
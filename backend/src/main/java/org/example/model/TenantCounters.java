@@ -0,0 +1,37 @@
+package org.example.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Map;
+
+// Dashboard numbers of one tenant, kept up to date with $inc on every write that changes them
+@Document(collection = "tenant_counters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TenantCounters {
+
+    @Id
+    private String tenantId;
+
+    private long total;
+
+    // ReportStatus name -> number of reports currently in that status
+    private Map<String, Long> byStatus;
+
+    // Reporter messages the compliance team has not read yet
+    private long unreadMessages;
+
+    private Instant updatedAt;
+
+    // Set by rebuild only. A document without it holds just the increments made since it was created
+    // (e.g. the first write after deploying the counters) and does not count all reports yet
+    private Instant rebuiltAt;
+
+    // Bumped by every increment and rebuild, so a rebuild can tell that the counters moved under it
+    private long version;
+}
@@ -0,0 +1,32 @@
+package org.example.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// A tenant's AES data key, stored only wrapped by the master key
+@Document(collection = "tenant_data_keys")
+// Newest key of a tenant, the one new values are encrypted with
+@CompoundIndex(name = "tenant_created_idx", def = "{'tenantId': 1, 'createdAt': -1}")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TenantDataKey {
+
+    @Id
+    private String keyId;        // referenced from every ciphertext
+
+    private String tenantId;
+
+    private byte[] wrappedKey;
+
+    private String masterKeyId;  // MasterKeyProvider.keyId() at wrap time
+
+    private Instant createdAt;
+
+    private long reservedUses;   // encryptions handed out to processes so far, see DataKeyService
+}
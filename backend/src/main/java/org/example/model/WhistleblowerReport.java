@@ -2,6 +2,8 @@ package org.example.model;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -9,6 +11,15 @@ import java.time.Instant;
 import java.util.List;
 
 @Document(collection = "whistleblower_reports")
+// Backs the keyset-paginated tenant listing (newest first, reportId as tie-breaker)
+@CompoundIndex(name = "tenant_created_idx", def = "{'tenantId': 1, 'createdAt': -1, 'reportId': -1}")
+// Same listing filtered to one status
+@CompoundIndex(name = "tenant_status_created_idx", def = "{'tenantId': 1, 'status': 1, 'createdAt': -1, 'reportId': -1}")
+// Overdue count of the tenant summary (NEW reports past their deadline)
+@CompoundIndex(name = "tenant_status_deadline_idx", def = "{'tenantId': 1, 'status': 1, 'deadlineAt': 1}")
+// Deadline scanner: only unacknowledged reports are indexed, and the scan is covered by the index
+@CompoundIndex(name = "new_deadline_idx", def = "{'status': 1, 'deadlineAt': 1, 'reportId': 1, 'tenantId': 1}",
+        partialFilter = "{'status': 'NEW'}")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,8 +33,13 @@ public class WhistleblowerReport {
     @Indexed(unique = true)
     private String reportId;     // UUID shown internally
 
-    @Indexed(unique = true)
-    private String secretKey;    // ONLY identifier for whistleblower
+    // ONLY identifier for whistleblower. Handed out once in the createReport response and never
+    // stored, lookups go through its SHA-256 digest
+    @Transient
+    private String secretKey;
+
+    @Indexed(unique = true, sparse = true)
+    private String secretKeyHash;
 
     @Indexed
     private String tenantId;     // links to Tenant.tenantId
@@ -41,6 +57,13 @@ public class WhistleblowerReport {
     // status for read or unread
     private boolean readOrUnRead;
 
+    // Last sequence number handed out to a message of this report ($inc on every message)
+    private long messageSeq;
+
+    // Messages of each side the other side has not read yet ($inc on every message, reset by mark-read)
+    private long unreadFromReporter;
+    private long unreadFromComplianceTeam;
+
     // Legal timing
     private Instant createdAt;
     private Instant receivedAt;
@@ -1,13 +1,16 @@
 package org.example.repository;
 
 import org.example.model.ConversationMessage;
+import org.example.repository.projection.AttachmentsView;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.List;
 
 public interface ConversationMessageRepository
-        extends MongoRepository<ConversationMessage, String> {
+        extends MongoRepository<ConversationMessage, String>, ConversationMessageRepositoryCustom {
 
     List<ConversationMessage> findByReportIdOrderByCreatedAtAsc(String reportId);
+
+    List<AttachmentsView> findAttachmentsByReportId(String reportId);
     
 }
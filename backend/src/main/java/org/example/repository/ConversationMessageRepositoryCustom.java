@@ -0,0 +1,32 @@
+package org.example.repository;
+
+import org.example.model.ConversationMessage;
+import org.example.model.MessageSender;
+import org.example.utility.MessageWindow;
+
+import java.util.List;
+
+public interface ConversationMessageRepositoryCustom {
+
+    /**
+     * Raw (untrimmed, in query order) rows for a message window, served by report_seq_idx.
+     * Use {@link MessageWindow#page} / {@link MessageWindow#hasMore} on the result.
+     */
+    List<ConversationMessage> findWindow(String reportId, MessageWindow window);
+
+    /**
+     * Marks every unread message of one sender in a report as read with a single updateMany.
+     *
+     * @return the number of messages that were unread
+     */
+    long markRead(String reportId, MessageSender sender);
+
+    /**
+     * Numbers the messages of a report stored before seq existed (no seq, read as 0) with -1, -2, ...
+     * from the newest one, so they page with {@code before} like any other message. The numbers only
+     * depend on createdAt and id, so repeated or concurrent runs write the same values.
+     *
+     * @return the number of legacy messages of the report
+     */
+    long backfillLegacySeq(String reportId);
+}
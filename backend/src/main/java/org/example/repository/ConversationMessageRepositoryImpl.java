@@ -0,0 +1,66 @@
+package org.example.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.model.ConversationMessage;
+import org.example.model.MessageSender;
+import org.example.utility.MessageWindow;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ConversationMessageRepositoryImpl implements ConversationMessageRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<ConversationMessage> findWindow(String reportId, MessageWindow window) {
+        Criteria criteria = Criteria.where("reportId").is(reportId);
+        Criteria seq = window.seqCriteria();
+        if (seq != null) {
+            criteria = criteria.andOperator(seq);
+        }
+
+        Query query = Query.query(criteria)
+                .with(window.sort())
+                .limit(window.fetchSize());
+
+        return mongoTemplate.find(query, ConversationMessage.class);
+    }
+
+    @Override
+    public long markRead(String reportId, MessageSender sender) {
+        // Served by the partial report_unread_idx, which only holds unread messages
+        Query query = Query.query(Criteria.where("reportId").is(reportId)
+                .and("sender").is(sender)
+                .and("readOrUnRead").is(false));
+
+        return mongoTemplate.updateMulti(query, new Update().set("readOrUnRead", true), ConversationMessage.class)
+                .getModifiedCount();
+    }
+
+    @Override
+    public long backfillLegacySeq(String reportId) {
+        // Missing seq and already backfilled ones, so a rerun numbers the same messages the same way
+        Query query = Query.query(Criteria.where("reportId").is(reportId).and("seq").not().gt(0))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"));
+        query.fields().include("_id");
+        List<ConversationMessage> legacy = mongoTemplate.find(query, ConversationMessage.class);
+        if (legacy.isEmpty()) {
+            return 0;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ConversationMessage.class);
+        for (int i = 0; i < legacy.size(); i++) {
+            bulk.updateOne(Query.query(Criteria.where("_id").is(legacy.get(i).getId())),
+                    new Update().set("seq", -(i + 1L)));
+        }
+        bulk.execute();
+        return legacy.size();
+    }
+}
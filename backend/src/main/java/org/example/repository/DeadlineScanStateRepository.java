@@ -0,0 +1,7 @@
+package org.example.repository;
+
+import org.example.model.DeadlineScanState;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface DeadlineScanStateRepository extends MongoRepository<DeadlineScanState, String> {
+}
@@ -0,0 +1,8 @@
+package org.example.repository;
+
+import org.example.model.TenantCounters;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface TenantCountersRepository
+        extends MongoRepository<TenantCounters, String>, TenantCountersRepositoryCustom {
+}
@@ -0,0 +1,28 @@
+package org.example.repository;
+
+import org.example.model.ReportStatus;
+
+/**
+ * Single-document $inc updates on tenant_counters (upserted on first use). They run after the
+ * write they count, not in a transaction with it; {@link #rebuild} corrects any drift.
+ */
+public interface TenantCountersRepositoryCustom {
+
+    void recordCreated(String tenantId, ReportStatus status);
+
+    void recordTransition(String tenantId, ReportStatus from, ReportStatus to);
+
+    void recordUnreadMessages(String tenantId, long delta);
+
+    /**
+     * Recomputes the counters from whistleblower_reports and conversation_messages with one
+     * aggregation and writes them back conditional on the version read before it, so an increment
+     * that lands meanwhile is never overwritten: the tenant is recomputed instead (a few attempts).
+     * A write that has changed a report but not incremented the counters yet is still counted twice;
+     * that window is as short as the write and the next rebuild corrects it.
+     *
+     * @param tenantId tenant to rebuild, or null for all tenants
+     * @return false if some tenant's counters kept changing and were not rebuilt
+     */
+    boolean rebuild(String tenantId);
+}
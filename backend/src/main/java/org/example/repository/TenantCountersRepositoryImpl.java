@@ -0,0 +1,188 @@
+package org.example.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.example.model.ReportStatus;
+import org.example.model.TenantCounters;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class TenantCountersRepositoryImpl implements TenantCountersRepositoryCustom {
+
+    private static final String COLLECTION = "tenant_counters";
+
+    // Rebuilds of a tenant whose counters keep changing under it before giving up
+    private static final int REBUILD_ATTEMPTS = 5;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void recordCreated(String tenantId, ReportStatus status) {
+        increment(tenantId, new Update()
+                .inc("total", 1)
+                .inc("byStatus." + status.name(), 1));
+    }
+
+    @Override
+    public void recordTransition(String tenantId, ReportStatus from, ReportStatus to) {
+        if (from == to) {
+            return;
+        }
+        increment(tenantId, new Update()
+                .inc("byStatus." + from.name(), -1)
+                .inc("byStatus." + to.name(), 1));
+    }
+
+    @Override
+    public void recordUnreadMessages(String tenantId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        if (delta > 0) {
+            increment(tenantId, new Update().inc("unreadMessages", delta));
+            return;
+        }
+        // Clamped at 0 like the per-report counts: counters that predate a message marked read now
+        // never counted it (rebuild corrects them, this keeps them sane until it has run)
+        mongoTemplate.upsert(
+                Query.query(Criteria.where("_id").is(tenantId)),
+                AggregationUpdate.from(List.of(Aggregation.stage(new Document("$set", new Document()
+                        .append("unreadMessages", new Document("$max", List.of(0L, new Document("$add",
+                                List.of(new Document("$ifNull", List.of("$unreadMessages", 0L)), delta)))))
+                        .append("updatedAt", Instant.now())
+                        .append("version", new Document("$add",
+                                List.of(new Document("$ifNull", List.of("$version", 0L)), 1L))))))),
+                TenantCounters.class);
+    }
+
+    @Override
+    public boolean rebuild(String tenantId) {
+        Collection<String> pending = tenantId == null ? null : List.of(tenantId);
+        for (int attempt = 0; attempt < REBUILD_ATTEMPTS; attempt++) {
+            pending = rebuildOnce(pending);
+            if (pending.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Rebuilds the given tenants (null: all) and returns those whose counters moved in the meantime
+    private Set<String> rebuildOnce(Collection<String> tenantIds) {
+        // Versions first: an increment after this point changes the version, whether or not the
+        // aggregation below saw the write it counts
+        Query existing = tenantIds == null ? new Query() : Query.query(Criteria.where("_id").in(tenantIds));
+        existing.fields().include("_id", "version");
+        Map<String, Long> versions = new HashMap<>();
+        for (Document counters : mongoTemplate.find(existing, Document.class, COLLECTION)) {
+            Number version = counters.get("version", Number.class);
+            versions.put(counters.getString("_id"), version == null ? null : version.longValue());
+        }
+
+        Map<String, Document> rebuilt = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(countAggregation(tenantIds), "whistleblower_reports", Document.class)) {
+            if (row.getString("_id") != null) {
+                rebuilt.put(row.getString("_id"), row);
+            }
+        }
+        // Tenants without reports (any more) have no row but must end up at zero
+        Set<String> tenants = new HashSet<>(rebuilt.keySet());
+        tenants.addAll(versions.keySet());
+        if (tenantIds != null) {
+            tenants.addAll(tenantIds);
+        }
+
+        Instant now = Instant.now();
+        Set<String> conflicts = new HashSet<>();
+        for (String tenant : tenants) {
+            if (!write(tenant, rebuilt.get(tenant), versions.containsKey(tenant), versions.get(tenant), now)) {
+                conflicts.add(tenant);
+            }
+        }
+        return conflicts;
+    }
+
+    private Aggregation countAggregation(Collection<String> tenantIds) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        Criteria reports = Criteria.where("status").ne(null);
+        if (tenantIds != null) {
+            reports = reports.and("tenantId").in(tenantIds);
+        }
+        stages.add(Aggregation.match(reports));
+
+        // Unread reporter messages come from the per-report counters the conversation keeps, so the
+        // rebuild never reads conversation_messages; reports from before the counters count as zero
+        stages.add(Aggregation.stage(new Document("$group", new Document("_id",
+                new Document("tenantId", "$tenantId").append("status", "$status"))
+                .append("count", new Document("$sum", 1))
+                .append("unread", new Document("$sum", new Document("$ifNull", List.of("$unreadFromReporter", 0)))))));
+        stages.add(Aggregation.stage(new Document("$group", new Document("_id", "$_id.tenantId")
+                .append("byStatus", new Document("$push", new Document("k", "$_id.status").append("v", "$count")))
+                .append("total", new Document("$sum", "$count"))
+                .append("unreadMessages", new Document("$sum", "$unread")))));
+        stages.add(Aggregation.stage(new Document("$project", new Document("byStatus",
+                new Document("$arrayToObject", "$byStatus"))
+                .append("total", 1)
+                .append("unreadMessages", 1))));
+        return Aggregation.newAggregation(stages);
+    }
+
+    // Replaces the counters if their version is still the one read before the aggregation
+    private boolean write(String tenantId, Document row, boolean exists, Long version, Instant now) {
+        Document byStatus = new Document();
+        if (row != null) {
+            row.get("byStatus", Document.class).forEach((status, count) -> byStatus.put(status, ((Number) count).longValue()));
+        }
+        long total = row == null ? 0 : ((Number) row.get("total")).longValue();
+        long unread = row == null ? 0 : ((Number) row.get("unreadMessages")).longValue();
+
+        if (!exists) {
+            try {
+                mongoTemplate.insert(new Document("_id", tenantId)
+                        .append("total", total)
+                        .append("byStatus", byStatus)
+                        .append("unreadMessages", unread)
+                        .append("updatedAt", now)
+                        .append("rebuiltAt", now)
+                        .append("version", 1L), COLLECTION);
+                return true;
+            } catch (DuplicateKeyException e) {
+                return false; // the first increment got there first
+            }
+        }
+        return mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(tenantId).and("version").is(version)),
+                new Update()
+                        .set("total", total)
+                        .set("byStatus", byStatus)
+                        .set("unreadMessages", unread)
+                        .set("updatedAt", now)
+                        .set("rebuiltAt", now)
+                        .inc("version", 1),
+                COLLECTION).getMatchedCount() == 1;
+    }
+
+    // Creates a document without rebuiltAt when there is none yet, see TenantCounters#rebuiltAt
+    private void increment(String tenantId, Update update) {
+        mongoTemplate.upsert(
+                Query.query(Criteria.where("_id").is(tenantId)),
+                update.set("updatedAt", Instant.now()).inc("version", 1),
+                TenantCounters.class);
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.repository;
+
+import org.example.model.TenantDataKey;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Optional;
+
+public interface TenantDataKeyRepository extends MongoRepository<TenantDataKey, String>, TenantDataKeyRepositoryCustom {
+
+    Optional<TenantDataKey> findFirstByTenantIdOrderByCreatedAtDesc(String tenantId);
+}
@@ -0,0 +1,12 @@
+package org.example.repository;
+
+public interface TenantDataKeyRepositoryCustom {
+
+    /**
+     * Takes {@code count} more encryptions of the key out of its budget of {@code maxUses}, across
+     * all processes that share it. Keys stored before usage was counted start at 0.
+     *
+     * @return false if the budget does not have {@code count} left (the key has to be rotated)
+     */
+    boolean reserveUses(String keyId, long count, long maxUses);
+}
@@ -0,0 +1,23 @@
+package org.example.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.model.TenantDataKey;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+@RequiredArgsConstructor
+public class TenantDataKeyRepositoryImpl implements TenantDataKeyRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean reserveUses(String keyId, long count, long maxUses) {
+        // "not greater" also matches a missing field, which $inc then starts from 0
+        Query query = Query.query(Criteria.where("keyId").is(keyId)
+                .and("reservedUses").not().gt(maxUses - count));
+        return mongoTemplate.updateFirst(query, new Update().inc("reservedUses", count), TenantDataKey.class)
+                .getModifiedCount() == 1;
+    }
+}
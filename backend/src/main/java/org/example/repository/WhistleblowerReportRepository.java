@@ -2,21 +2,24 @@ package org.example.repository;
 
 import org.example.model.WhistleblowerReport;
 import org.example.repository.projection.AdminReportView;
+import org.example.repository.projection.AttachmentsView;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface WhistleblowerReportRepository
-        extends MongoRepository<WhistleblowerReport, String> {
+        extends MongoRepository<WhistleblowerReport, String>, WhistleblowerReportRepositoryCustom {
 
     Optional<WhistleblowerReport> findByReportId(String reportId);
+    boolean existsByReportId(String reportId);
     List<WhistleblowerReport> findAllByTenantId(String tenantId);
     Optional<WhistleblowerReport> findByReportIdAndTenantId(String reportId,String tenantId);
     //Projection in MongoDb
     Optional<AdminReportView> findProjectedByReportIdAndTenantId(String reportId,String tenantId);
+    Optional<AttachmentsView> findAttachmentsByReportIdAndTenantId(String reportId, String tenantId);
 
-    Optional<WhistleblowerReport> findBySecretKey(String secretKey);
+    Optional<WhistleblowerReport> findBySecretKeyHash(String secretKeyHash);
 
 
 }
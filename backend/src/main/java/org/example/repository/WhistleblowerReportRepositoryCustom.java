@@ -0,0 +1,98 @@
+package org.example.repository;
+
+import org.example.model.MessageSender;
+import org.example.model.ReportStatus;
+import org.example.model.WhistleblowerReport;
+import org.example.repository.projection.AdminReportDetails;
+import org.example.repository.projection.DueReportView;
+import org.example.repository.projection.ReportListView;
+import org.example.utility.DeadlineCursor;
+import org.example.utility.MessageWindow;
+import org.example.utility.ReportCursor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface WhistleblowerReportRepositoryCustom {
+
+    /**
+     * Keyset page of a tenant's reports, newest first.
+     *
+     * @param tenantId tenant to list
+     * @param status   only reports in this status, or null for all
+     * @param after    position of the last row of the previous page, or null for the first page
+     * @param limit    maximum number of rows to return
+     */
+    List<ReportListView> findPageByTenantId(String tenantId, ReportStatus status, ReportCursor after, int limit);
+
+    /**
+     * Report and one window of its messages in one aggregation round trip.
+     * Messages come back untrimmed in query order, see {@link MessageWindow#page}.
+     * The secret key is never part of the result.
+     */
+    Optional<AdminReportDetails> findWithMessagesByReportIdAndTenantId(String reportId, String tenantId,
+            MessageWindow window);
+
+    /**
+     * Atomically flips a NEW report to RECEIVED.
+     *
+     * @return the updated report, or empty if it was not NEW (anymore)
+     */
+    Optional<WhistleblowerReport> markReceivedIfNew(String reportId, String tenantId, Instant now);
+
+    /**
+     * Moves a report to {@code target} with a single conditional update that only matches
+     * while the report's status is one of {@code from}. Sets updatedAt (and receivedAt for RECEIVED).
+     *
+     * @return the report as it was before the update, or empty if it does not exist
+     *         or its status is not in {@code from}
+     */
+    Optional<WhistleblowerReport> transitionStatus(String reportId, Set<ReportStatus> from,
+            ReportStatus target, Instant now);
+
+    /**
+     * Allocates the next message sequence number of a report ($inc messageSeq) and counts the
+     * message as unread for the sender's side.
+     *
+     * @return reportId, tenantId, status and the new messageSeq of the report, or empty if it does not exist
+     */
+    Optional<WhistleblowerReport> allocateMessageSeq(String reportId, MessageSender sender);
+
+    /**
+     * Subtracts messages that were just marked read from the sender side's unread count, never
+     * below 0.
+     */
+    void decrementUnread(String reportId, MessageSender sender, long count);
+
+    /**
+     * Reports of a tenant still NEW after their deadline, counted on tenant_status_deadline_idx.
+     */
+    long countOverdue(String tenantId, Instant now);
+
+    /**
+     * Report created before secret keys were hashed: replaces the stored plaintext key with its
+     * hash in the same findAndModify that finds it.
+     *
+     * @return the migrated report, or empty if no report has this plaintext key
+     */
+    Optional<WhistleblowerReport> migrateLegacySecretKey(String secretKey, String secretKeyHash);
+
+    /**
+     * Replaces the old unique index on the plaintext secretKey field, if it still exists, with a
+     * sparse one: new reports no longer have the field and would collide on null, while the legacy
+     * lookup still needs an index until every report is migrated.
+     *
+     * @return whether the index was replaced
+     */
+    boolean sparsifyLegacySecretKeyIndex();
+
+    /**
+     * Keyset page of NEW reports across all tenants with deadlineAt before {@code dueBy}, in
+     * (deadlineAt, reportId) order. Covered by the partial new_deadline_idx.
+     *
+     * @param after position of the last report already handled, or null to start at the earliest deadline
+     */
+    List<DueReportView> findDueNewReports(DeadlineCursor after, Instant dueBy, int limit);
+}
@@ -0,0 +1,213 @@
+package org.example.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.example.model.MessageSender;
+import org.example.model.ReportStatus;
+import org.example.model.WhistleblowerReport;
+import org.example.repository.projection.AdminReportDetails;
+import org.example.repository.projection.DueReportView;
+import org.example.repository.projection.ReportListView;
+import org.example.utility.DeadlineCursor;
+import org.example.utility.MessageWindow;
+import org.example.utility.ReportCursor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationPipeline;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.LookupOperation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class WhistleblowerReportRepositoryImpl implements WhistleblowerReportRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<ReportListView> findPageByTenantId(String tenantId, ReportStatus status, ReportCursor after,
+            int limit) {
+        Criteria criteria = Criteria.where("tenantId").is(tenantId);
+        if (status != null) {
+            criteria = criteria.and("status").is(status);
+        }
+
+        // Seek past the previous page instead of skipping, so every page is a
+        // bounded range scan on tenant_created_idx (tenant_status_created_idx when filtered)
+        if (after != null) {
+            criteria = criteria.orOperator(
+                    Criteria.where("createdAt").lt(after.getCreatedAt()),
+                    Criteria.where("createdAt").is(after.getCreatedAt())
+                            .and("reportId").lt(after.getReportId()));
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "reportId"))
+                .limit(limit);
+
+        // Interface projection limits the returned fields to those of ReportListView
+        return mongoTemplate.query(WhistleblowerReport.class)
+                .as(ReportListView.class)
+                .matching(query)
+                .all();
+    }
+
+    @Override
+    public Optional<AdminReportDetails> findWithMessagesByReportIdAndTenantId(String reportId, String tenantId,
+            MessageWindow window) {
+        List<AggregationOperation> messageStages = new ArrayList<>();
+        Criteria seq = window.seqCriteria();
+        if (seq != null) {
+            messageStages.add(Aggregation.match(seq));
+        }
+        messageStages.add(Aggregation.sort(window.sort()));
+        messageStages.add(Aggregation.limit(window.fetchSize()));
+
+        // Concise $lookup (localField/foreignField plus pipeline) needs MongoDB 5.0+
+        LookupOperation messages = LookupOperation.newLookup()
+                .from("conversation_messages")
+                .localField("reportId")
+                .foreignField("reportId")
+                .pipeline(AggregationPipeline.of(messageStages.toArray(AggregationOperation[]::new)))
+                .as("messages");
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("reportId").is(reportId).and("tenantId").is(tenantId)),
+                Aggregation.limit(1),
+                messages,
+                Aggregation.project().andExclude("secretKey", "secretKeyHash"));
+
+        return Optional.ofNullable(mongoTemplate
+                .aggregate(aggregation, "whistleblower_reports", AdminReportDetails.class)
+                .getUniqueMappedResult());
+    }
+
+    @Override
+    public Optional<WhistleblowerReport> markReceivedIfNew(String reportId, String tenantId, Instant now) {
+        Query query = Query.query(Criteria.where("reportId").is(reportId)
+                .and("tenantId").is(tenantId)
+                .and("status").in(ReportStatus.RECEIVED.allowedFrom()));
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                query, statusUpdate(ReportStatus.RECEIVED, now),
+                FindAndModifyOptions.options().returnNew(true), WhistleblowerReport.class));
+    }
+
+    @Override
+    public Optional<WhistleblowerReport> transitionStatus(String reportId, Set<ReportStatus> from,
+            ReportStatus target, Instant now) {
+        Query query = Query.query(Criteria.where("reportId").is(reportId).and("status").in(from));
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                query, statusUpdate(target, now),
+                FindAndModifyOptions.options().returnNew(false), WhistleblowerReport.class));
+    }
+
+    @Override
+    public Optional<WhistleblowerReport> allocateMessageSeq(String reportId, MessageSender sender) {
+        Query query = Query.query(Criteria.where("reportId").is(reportId));
+        query.fields().include("reportId", "tenantId", "status", "messageSeq");
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                query, new Update().inc("messageSeq", 1).inc(unreadField(sender), 1),
+                FindAndModifyOptions.options().returnNew(true), WhistleblowerReport.class));
+    }
+
+    @Override
+    public void decrementUnread(String reportId, MessageSender sender, long count) {
+        if (count == 0) {
+            return;
+        }
+        // Clamped at 0: messages stored before the counters existed are unread but were never
+        // counted, until scripts/backfill-unread-counters.js has run for them
+        String field = unreadField(sender);
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("reportId").is(reportId)),
+                AggregationUpdate.from(List.of(Aggregation.stage(new Document("$set", new Document(field,
+                        new Document("$max", List.of(0L, new Document("$subtract",
+                                List.of(new Document("$ifNull", List.of("$" + field, 0L)), count))))))))),
+                WhistleblowerReport.class);
+    }
+
+    private static String unreadField(MessageSender sender) {
+        return sender == MessageSender.REPORTER ? "unreadFromReporter" : "unreadFromComplianceTeam";
+    }
+
+    @Override
+    public long countOverdue(String tenantId, Instant now) {
+        Query query = Query.query(Criteria.where("tenantId").is(tenantId)
+                .and("status").is(ReportStatus.NEW)
+                .and("deadlineAt").lt(now));
+        return mongoTemplate.count(query, WhistleblowerReport.class);
+    }
+
+    @Override
+    public List<DueReportView> findDueNewReports(DeadlineCursor after, Instant dueBy, int limit) {
+        // status: NEW selects the partial index; the projection leaves out _id so no document is fetched
+        Criteria criteria = Criteria.where("status").is(ReportStatus.NEW);
+        if (after == null) {
+            criteria = criteria.and("deadlineAt").lt(dueBy);
+        } else {
+            criteria = criteria.orOperator(
+                    Criteria.where("deadlineAt").gt(after.getDeadlineAt()).lt(dueBy),
+                    Criteria.where("deadlineAt").is(after.getDeadlineAt())
+                            .and("reportId").gt(after.getReportId()));
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "deadlineAt", "reportId"))
+                .limit(limit);
+        query.fields().include("reportId", "tenantId", "deadlineAt").exclude("_id");
+
+        return mongoTemplate.query(WhistleblowerReport.class)
+                .as(DueReportView.class)
+                .matching(query)
+                .all();
+    }
+
+    @Override
+    public Optional<WhistleblowerReport> migrateLegacySecretKey(String secretKey, String secretKeyHash) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                Query.query(Criteria.where("secretKey").is(secretKey)),
+                new Update().set("secretKeyHash", secretKeyHash).unset("secretKey"),
+                FindAndModifyOptions.options().returnNew(true), WhistleblowerReport.class));
+    }
+
+    @Override
+    public boolean sparsifyLegacySecretKeyIndex() {
+        IndexOperations indexes = mongoTemplate.indexOps(WhistleblowerReport.class);
+        for (IndexInfo index : indexes.getIndexInfo()) {
+            if (index.isIndexForFields(List.of("secretKey")) && !index.isSparse()) {
+                indexes.dropIndex(index.getName());
+                indexes.ensureIndex(new Index("secretKey", Sort.Direction.ASC)
+                        .named("secretKey_legacy").unique().sparse());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Only the status fields are written, so concurrent writers never overwrite each other's changes
+    private static Update statusUpdate(ReportStatus target, Instant now) {
+        Update update = new Update()
+                .set("status", target)
+                .set("updatedAt", now);
+        if (target == ReportStatus.RECEIVED) {
+            update.set("receivedAt", now);
+        }
+        return update;
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.repository.projection;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.model.ConversationMessage;
+import org.example.model.WhistleblowerReport;
+
+import java.time.Instant;
+import java.util.List;
+
+// Admin view of a report with its conversation joined in by a single $lookup aggregation
+@Data
+@NoArgsConstructor
+public class AdminReportDetails implements AdminReportView {
+
+    private String reportId;
+    private String tenantId;
+    private String subject;
+    private String message;
+    private List<String> attachments;
+    private String status;
+    private boolean readOrUnRead;
+    private Instant createdAt;
+    private Instant receivedAt;
+    private Instant deadlineAt;
+    private Instant updatedAt;
+    private long messageSeq; // latest message seq; in responses, where "since" polling resumes (MessageWindow#resumeSeq)
+    private long unreadFromReporter;
+    private long unreadFromComplianceTeam;
+
+    // Returned next to the report in AdminReportConversationResponse, not inside it
+    @JsonIgnore
+    private List<ConversationMessage> messages;
+
+    // Take over the status fields after a status transition done with findAndModify
+    public void applyStatusFrom(WhistleblowerReport report) {
+        this.status = report.getStatus().name();
+        this.receivedAt = report.getReceivedAt();
+        this.updatedAt = report.getUpdatedAt();
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.repository.projection;
+
+import java.util.List;
+
+// Only the S3 keys of a report or message, for batch presigning
+public interface AttachmentsView {
+
+    List<String> getAttachments();
+}
@@ -0,0 +1,11 @@
+package org.example.repository.projection;
+
+import java.time.Instant;
+
+// Index-only row of the deadline scan, read from new_deadline_idx without fetching the document
+public interface DueReportView {
+
+    String getReportId();
+    String getTenantId();
+    Instant getDeadlineAt();
+}
@@ -0,0 +1,19 @@
+package org.example.repository.projection;
+
+import java.time.Instant;
+
+// Slim row for the tenant report list, leaves out message body and attachments
+public interface ReportListView {
+
+    String getReportId();
+    String getTenantId();
+    String getSubject();
+    String getStatus();
+    boolean isReadOrUnRead();
+    long getUnreadFromReporter();
+    long getUnreadFromComplianceTeam();
+    Instant getCreatedAt();
+    Instant getReceivedAt();
+    Instant getDeadlineAt();
+    Instant getUpdatedAt();
+}
@@ -1,5 +1,7 @@
 package org.example.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
@@ -9,12 +11,14 @@ import software.amazon.awssdk.services.cognitoidentityprovider.model.*;
 public class CognitoUserService {
 
         private final CognitoIdentityProviderClient cognitoClient;
+        private final MeterRegistry meterRegistry;
 
         @Value("${aws.cognito.userPoolId}")
         private String userPoolId;
 
-        public CognitoUserService(CognitoIdentityProviderClient cognitoClient) {
+        public CognitoUserService(CognitoIdentityProviderClient cognitoClient, MeterRegistry meterRegistry) {
                 this.cognitoClient = cognitoClient;
+                this.meterRegistry = meterRegistry;
         }
 
         /**
@@ -40,6 +44,13 @@ public class CognitoUserService {
                                 .desiredDeliveryMediums(DeliveryMediumType.EMAIL)
                                 .build();
 
-                cognitoClient.adminCreateUser(createUserRequest);
+                Timer.Sample sample = Timer.start(meterRegistry);
+                String outcome = "error";
+                try {
+                        cognitoClient.adminCreateUser(createUserRequest);
+                        outcome = "success";
+                } finally {
+                        sample.stop(meterRegistry.timer("whistleblower.cognito.invite", "outcome", outcome));
+                }
         }
 }
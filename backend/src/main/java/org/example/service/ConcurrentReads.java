@@ -0,0 +1,45 @@
+package org.example.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent blocking reads (Mongo queries, S3 HEADs) next to each other, so a request waits
+ * for the slowest one instead of their sum. Uses Boot's applicationTaskExecutor: a task per virtual
+ * thread with spring.threads.virtual.enabled (standalone profile), a small pool otherwise.
+ */
+@Component
+public class ConcurrentReads {
+
+    private final AsyncTaskExecutor executor;
+
+    public ConcurrentReads(@Qualifier("applicationTaskExecutor") AsyncTaskExecutor executor) {
+        this.executor = executor;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> read) {
+        return CompletableFuture.supplyAsync(read, executor);
+    }
+
+    /**
+     * Waits for the read and rethrows its exception as is (ApiException keeps its status).
+     */
+    public static <T> T await(CompletableFuture<T> read) {
+        try {
+            return read.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -3,27 +3,45 @@ package org.example.service;
 import lombok.RequiredArgsConstructor;
 
 import org.example.dto.AdminReportConversationResponse;
+import org.example.dto.ReportPageResponse;
 import org.example.dto.ReportWithConversationResponse;
 import org.example.error.ApiException;
 import org.example.model.*;
 import org.example.repository.*;
-import org.example.repository.projection.AdminReportView;
+import org.example.repository.projection.AdminReportDetails;
+import org.example.repository.projection.AttachmentsView;
+import org.example.repository.projection.ReportListView;
+import org.example.utility.MessageWindow;
+import org.example.utility.ReportCursor;
 import org.example.utility.SecretKeyGenerator;
 import org.springframework.stereotype.Service;
 
 import java.security.SecureRandom;
 import java.time.Instant;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ConversationService {
 
+        private static final int DEFAULT_PAGE_SIZE = 20;
+        private static final int MAX_PAGE_SIZE = 100;
+
+        // An admin reply advances an untriaged case, it never reopens a closed or canceled one
+        private static final Set<ReportStatus> REPLY_ADVANCES_FROM = ReportStatus.IN_PROGRESS.allowedFrom().stream()
+                        .filter(status -> !status.isTerminal())
+                        .collect(Collectors.toUnmodifiableSet());
+
         private final WhistleblowerReportRepository reportRepo;
         private final ConversationMessageRepository messageRepo;
-        private final TenantRepository tenantRepo;
+        private final TenantCache tenantCache;
+        private final TenantCountersRepository countersRepo;
+        private final SecretKeyLookup secretKeyLookup;
 
         public WhistleblowerReport createReport(
                         String tenantId,
@@ -31,7 +49,7 @@ public class ConversationService {
                         String message,
                         List<String> attachments) {
 
-                Optional<Tenant> tenant = tenantRepo.findByTenantId(tenantId);
+                Optional<Tenant> tenant = tenantCache.findByTenantId(tenantId);
 
                 if (tenant.isEmpty()) {
                         throw new ApiException(404, "Tenant not found with id: " + tenantId);
@@ -44,10 +62,14 @@ public class ConversationService {
                 }
 
                 Instant now = Instant.now();
+                String secretKey = SecretKeyGenerator.generateSecretKey();
+                String secretKeyHash = SecretKeyLookup.hash(secretKey);
 
+                // Only the hash is stored, the key itself goes back to the reporter once
                 WhistleblowerReport report = WhistleblowerReport.builder()
                                 .reportId(UUID.randomUUID().toString())
-                                .secretKey(SecretKeyGenerator.generateSecretKey())
+                                .secretKey(secretKey)
+                                .secretKeyHash(secretKeyHash)
                                 .tenantId(tenantId)
                                 .subject(subject)
                                 .message(message)
@@ -58,11 +80,14 @@ public class ConversationService {
                                 .updatedAt(now)
                                 .build();
 
-                return reportRepo.save(report);
+                WhistleblowerReport saved = reportRepo.save(report);
+                secretKeyLookup.forget(secretKeyHash);
+                countersRepo.recordCreated(tenantId, saved.getStatus());
+                return saved;
         }
 
         public List<WhistleblowerReport> getAllReportForParticularTenant(String tenantId) {
-                Optional<Tenant> tenant = tenantRepo.findByTenantId(tenantId);
+                Optional<Tenant> tenant = tenantCache.findByTenantId(tenantId);
                 if (tenant.isEmpty()) {
                         throw new ApiException(404, "Tenant not found with id: " + tenantId);
                 }
@@ -71,6 +96,47 @@ public class ConversationService {
 
         }
 
+        // Keyset-paginated, projected listing (newest first), optionally of one status only
+        public ReportPageResponse getReportPageForTenant(String tenantId, String status, String cursor, Integer limit) {
+                Optional<Tenant> tenant = tenantCache.findByTenantId(tenantId);
+                if (tenant.isEmpty()) {
+                        throw new ApiException(404, "Tenant not found with id: " + tenantId);
+                }
+
+                int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+                if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                        throw new ApiException(400, "Limit must be between 1 and " + MAX_PAGE_SIZE);
+                }
+
+                ReportStatus statusFilter = null;
+                if (status != null && !status.isBlank()) {
+                        try {
+                                statusFilter = ReportStatus.valueOf(status);
+                        } catch (IllegalArgumentException e) {
+                                throw new ApiException(400, "Unknown status: " + status);
+                        }
+                }
+
+                ReportCursor after = (cursor == null || cursor.isBlank()) ? null : ReportCursor.decode(cursor);
+
+                // Fetch one extra row to know whether another page exists
+                List<ReportListView> rows = reportRepo.findPageByTenantId(tenantId, statusFilter, after, pageSize + 1);
+                boolean hasMore = rows.size() > pageSize;
+                List<ReportListView> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+                String nextCursor = null;
+                if (hasMore) {
+                        ReportListView last = page.get(page.size() - 1);
+                        nextCursor = new ReportCursor(last.getCreatedAt(), last.getReportId()).encode();
+                }
+
+                return ReportPageResponse.builder()
+                                .reports(page)
+                                .nextCursor(nextCursor)
+                                .hasMore(hasMore)
+                                .build();
+        }
+
         // Add new conversation message
         public ConversationMessage addMessage(
                         String reportId,
@@ -78,138 +144,203 @@ public class ConversationService {
                         String message,
                         List<String> attachments) {
 
-                // 1️⃣ Validate report
-                WhistleblowerReport report = reportRepo.findByReportId(reportId)
-                                .orElseThrow(() -> new ApiException(404, "Report not found with id: " + reportId));
-
-                // 2️⃣ Validate sender
+                // 1️⃣ Validate sender
                 if (sender == null) {
                         throw new ApiException(400, "Message sender must be provided");
                 }
 
-                // 3️⃣ Validate message
+                // 2️⃣ Validate message
                 if (message == null || message.trim().isEmpty()) {
                         throw new ApiException(400, "Message must not be empty");
                 }
 
-                // 5️⃣ Build message
+                // 3️⃣ Validate report and allocate the message's sequence number in one round trip
+                WhistleblowerReport report = reportRepo.allocateMessageSeq(reportId, sender)
+                                .orElseThrow(() -> new ApiException(404, "Report not found with id: " + reportId));
+
+                // An admin reply moves an untriaged case to IN_PROGRESS (never reopening a
+                // closed/canceled one). Conditional update, so only the first reply pays for it.
+                Instant now = Instant.now();
+                if (sender == MessageSender.COMPLIANCE_TEAM && REPLY_ADVANCES_FROM.contains(report.getStatus())) {
+                        reportRepo.transitionStatus(reportId, REPLY_ADVANCES_FROM, ReportStatus.IN_PROGRESS, now)
+                                        .ifPresent(previous -> countersRepo.recordTransition(
+                                                        report.getTenantId(), previous.getStatus(), ReportStatus.IN_PROGRESS));
+                }
+                if (sender == MessageSender.REPORTER) {
+                        countersRepo.recordUnreadMessages(report.getTenantId(), 1);
+                }
+
+                // 4️⃣ Build message
                 ConversationMessage conversationMessage = ConversationMessage.builder()
-                                .reportId(report.getReportId())
+                                .reportId(reportId)
+                                .tenantId(report.getTenantId())
+                                .seq(report.getMessageSeq())
                                 .sender(sender)
                                 .message(message)
                                 .attachments(attachments)
                                 .readOrUnRead(false) // default unread
-                                .createdAt(Instant.now())
+                                .createdAt(now)
                                 .build();
 
-                // 6️⃣ Save message
-                ConversationMessage savedMessage = messageRepo.save(conversationMessage);
-
-                // 7️⃣ Auto-update status to IN_PROGRESS if Admin replies
-                if (sender == MessageSender.COMPLIANCE_TEAM) {
-                        if (report.getStatus() != ReportStatus.CLOSED && report.getStatus() != ReportStatus.CANCELED) {
-                                report.setStatus(ReportStatus.IN_PROGRESS);
-                                report.setUpdatedAt(Instant.now());
-                                reportRepo.save(report);
-                        }
-                }
-
-                return savedMessage;
+                // 5️⃣ Save message
+                return messageRepo.save(conversationMessage);
         }
 
         // Todo: for admin
         public AdminReportConversationResponse getReportWithConversation(
                         String tenantId,
-                        String reportId) {
-
-                Tenant tenant = tenantRepo.findByTenantId(tenantId)
-                                .orElseThrow(() -> new ApiException(404, "Invalid tenantId"));
-
-                // WhistleblowerReport report = reportRepo
-                // .findByReportIdAndTenantId(reportId, tenantId)
-                // .orElseThrow(() -> new ApiException(404, "Report not found for this
-                // tenant"));
-                AdminReportView report = reportRepo
-                                .findProjectedByReportIdAndTenantId(reportId, tenantId)
-                                .orElseThrow(() -> new ApiException(404, "Report not found for this tenant"));
+                        String reportId,
+                        MessageWindow window) {
 
-                // Auto-update status from NEW -> RECEIVED on first view
-                // We need the full entity to update it, AdminReportView is a projection
-                // (read-only usually)
-                // So let's fetch the full entity if we need to update status
-                // But `findProjected` returns a View. We can use `findByReportIdAndTenantId`
-                // separately or check the view.
-
-                // Fetch full entity for status update check
-                Optional<WhistleblowerReport> fullReportOpt = reportRepo.findByReportIdAndTenantId(reportId, tenantId);
-                if (fullReportOpt.isPresent()) {
-                        WhistleblowerReport fullReport = fullReportOpt.get();
-                        if (fullReport.getStatus() == ReportStatus.NEW) {
-                                fullReport.setStatus(ReportStatus.RECEIVED);
-                                fullReport.setReceivedAt(Instant.now());
-                                fullReport.setUpdatedAt(Instant.now());
-                                reportRepo.save(fullReport);
-
-                                // Update the view projection logic?
-                                // The view returned below might be stale if we don't refresh it,
-                                // but usually acceptable for this request or we can re-fetch.
-                                // For simplicity, we let the frontend see "NEW" this one time (or maybe they
-                                // see RECEIVED if they refresh),
-                                // OR we can rely on the fact that next time it will be RECEIVED.
-                                // Actually, better to re-wait or just let it be.
-                        }
+                AdminReportDetails report = findWithMessages(tenantId, reportId, window);
+                if (hasLegacyMessages(report.getMessages()) && messageRepo.backfillLegacySeq(reportId) > 0) {
+                        report = findWithMessages(tenantId, reportId, window);
                 }
 
-                List<ConversationMessage> messages = messageRepo.findByReportIdOrderByCreatedAtAsc(reportId);
+                // Auto-update status from NEW -> RECEIVED on first view.
+                // The update is conditional on NEW, so concurrent viewers flip it exactly once.
+                if (ReportStatus.NEW.name().equals(report.getStatus())) {
+                        Optional<WhistleblowerReport> flipped = reportRepo.markReceivedIfNew(reportId, tenantId, Instant.now());
+                        flipped.ifPresent(received -> countersRepo.recordTransition(
+                                        tenantId, ReportStatus.NEW, ReportStatus.RECEIVED));
+                        WhistleblowerReport current = flipped
+                                        // someone else flipped it in the meantime, re-read the current state
+                                        .or(() -> reportRepo.findByReportIdAndTenantId(reportId, tenantId))
+                                        .orElseThrow(() -> new ApiException(404, "Report not found for this tenant"));
+                        report.applyStatusFrom(current);
+                }
 
+                List<ConversationMessage> fetched = report.getMessages();
+                List<ConversationMessage> page = window.page(fetched);
+                if (window.getBefore() == null) {
+                        // Clients resume polling and WebSocket replay from messageSeq, it must not skip a hole
+                        report.setMessageSeq(window.resumeSeq(page));
+                }
                 return AdminReportConversationResponse.builder()
                                 .report(report)
-                                .messages(messages)
+                                .messages(page)
+                                .hasMore(window.hasMore(fetched))
                                 .build();
         }
 
+        // Report + messages in one aggregation; the tenant is only looked up
+        // to tell "unknown tenant" apart from "unknown report"
+        private AdminReportDetails findWithMessages(String tenantId, String reportId, MessageWindow window) {
+                return reportRepo.findWithMessagesByReportIdAndTenantId(reportId, tenantId, window)
+                                .orElseThrow(() -> tenantCache.findByTenantId(tenantId).isPresent()
+                                                ? new ApiException(404, "Report not found for this tenant")
+                                                : new ApiException(404, "Invalid tenantId"));
+        }
+
+        // Messages stored before seq existed all read as seq 0 and cannot be paged back to with "before";
+        // they are numbered on the first read that meets one (or up front by scripts/backfill-message-seq.js)
+        private static boolean hasLegacyMessages(List<ConversationMessage> messages) {
+                return messages != null && messages.stream().anyMatch(message -> message.getSeq() == 0);
+        }
+
+        // All attachment keys of a report and its conversation, for batch presigning
+        public List<String> getAttachmentKeys(String tenantId, String reportId) {
+                AttachmentsView report = reportRepo.findAttachmentsByReportIdAndTenantId(reportId, tenantId)
+                                .orElseThrow(() -> new ApiException(404, "Report not found for this tenant"));
+
+                LinkedHashSet<String> keys = new LinkedHashSet<>();
+                if (report.getAttachments() != null) {
+                        keys.addAll(report.getAttachments());
+                }
+                for (AttachmentsView message : messageRepo.findAttachmentsByReportId(reportId)) {
+                        if (message.getAttachments() != null) {
+                                keys.addAll(message.getAttachments());
+                        }
+                }
+                return List.copyOf(keys);
+        }
+
         // Todo: For Reporter
-        public ReportWithConversationResponse getConversationBySecretKey(String secretKey) {
+        public ReportWithConversationResponse getConversationBySecretKey(String secretKey, MessageWindow window) {
                 // 1️⃣ Validate secret key
-                WhistleblowerReport report = reportRepo
-                                .findBySecretKey(secretKey)
-                                .orElseThrow(() -> new ApiException(404, "Invalid secret key"));
+                WhistleblowerReport report = secretKeyLookup.find(secretKey);
 
-                // 2️⃣ Fetch messages using reportId
-                List<ConversationMessage> messages = messageRepo.findByReportIdOrderByCreatedAtAsc(
-                                report.getReportId());
+                // 2️⃣ Fetch the requested window of messages using reportId
+                List<ConversationMessage> fetched = messageRepo.findWindow(report.getReportId(), window);
+                if (hasLegacyMessages(fetched) && messageRepo.backfillLegacySeq(report.getReportId()) > 0) {
+                        fetched = messageRepo.findWindow(report.getReportId(), window);
+                }
+
+                List<ConversationMessage> page = window.page(fetched);
+                if (window.getBefore() == null) {
+                        // Clients resume polling and WebSocket replay from messageSeq, it must not skip a hole
+                        report.setMessageSeq(window.resumeSeq(page));
+                }
 
                 // 3️⃣ Return combined response
                 return ReportWithConversationResponse.builder()
                                 .report(report)
-                                .messages(messages)
+                                .messages(page)
+                                .hasMore(window.hasMore(fetched))
                                 .build();
         }
 
+        // Admin opened the conversation: the reporter's messages are read
+        public long markReporterMessagesRead(String tenantId, String reportId) {
+                WhistleblowerReport report = reportRepo.findByReportIdAndTenantId(reportId, tenantId)
+                                .orElseThrow(() -> new ApiException(404, "Report not found for this tenant"));
+                long marked = markRead(report, MessageSender.REPORTER);
+                countersRepo.recordUnreadMessages(tenantId, -marked);
+                return marked;
+        }
+
+        // Reporter opened the conversation: the compliance team's messages are read
+        public long markComplianceMessagesRead(String secretKey) {
+                WhistleblowerReport report = secretKeyLookup.find(secretKey);
+                return markRead(report, MessageSender.COMPLIANCE_TEAM);
+        }
+
+        // The counter goes down by what updateMany actually flipped, so concurrent
+        // mark-reads and new messages keep it exact
+        private long markRead(WhistleblowerReport report, MessageSender sender) {
+                long marked = messageRepo.markRead(report.getReportId(), sender);
+                reportRepo.decrementUnread(report.getReportId(), sender, marked);
+                return marked;
+        }
+
         public WhistleblowerReport updateReportStatus(String reportId, String statusString) {
-                WhistleblowerReport report = reportRepo.findByReportId(reportId)
-                                .orElseThrow(() -> new ApiException(404, "Report not found"));
-
-                try {
-                        // Robust matching (ignore case)
-                        ReportStatus newStatus = null;
-                        for (ReportStatus s : ReportStatus.values()) {
-                                if (s.name().equalsIgnoreCase(statusString)) {
-                                        newStatus = s;
-                                        break;
-                                }
+                // Robust matching (ignore case)
+                ReportStatus newStatus = null;
+                for (ReportStatus s : ReportStatus.values()) {
+                        if (s.name().equalsIgnoreCase(statusString)) {
+                                newStatus = s;
+                                break;
                         }
+                }
+
+                if (newStatus == null) {
+                        throw new ApiException(400, "Invalid status: " + statusString);
+                }
 
-                        if (newStatus == null) {
-                                throw new IllegalArgumentException("Unknown status: " + statusString);
+                Instant now = Instant.now();
+                Optional<WhistleblowerReport> previous = reportRepo.transitionStatus(
+                                reportId, newStatus.allowedFrom(), newStatus, now);
+
+                if (previous.isEmpty()) {
+                        // Either the report does not exist or the transition is not allowed from its current status
+                        WhistleblowerReport current = reportRepo.findByReportId(reportId)
+                                        .orElseThrow(() -> new ApiException(404, "Report not found"));
+                        if (current.getStatus() == newStatus) {
+                                return current; // already there, nothing to do
                         }
+                        throw new ApiException(409, "Cannot change status from " + current.getStatus()
+                                        + " to " + newStatus);
+                }
 
-                        report.setStatus(newStatus);
-                        report.setUpdatedAt(Instant.now());
-                        return reportRepo.save(report);
-                } catch (IllegalArgumentException e) {
-                        throw new ApiException(400, "Invalid status: " + statusString);
+                // findAndModify returned the pre-update document, apply the same fields it wrote
+                WhistleblowerReport report = previous.get();
+                countersRepo.recordTransition(report.getTenantId(), report.getStatus(), newStatus);
+                report.setStatus(newStatus);
+                report.setUpdatedAt(now);
+                if (newStatus == ReportStatus.RECEIVED) {
+                        report.setReceivedAt(now);
                 }
+                return report;
         }
 
 }
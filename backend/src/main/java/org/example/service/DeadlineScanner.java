@@ -0,0 +1,105 @@
+package org.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.event.DeadlineEscalationEvent;
+import org.example.event.DeadlineEscalationEvent.Level;
+import org.example.model.DeadlineScanState;
+import org.example.repository.DeadlineScanStateRepository;
+import org.example.repository.WhistleblowerReportRepository;
+import org.example.repository.projection.DueReportView;
+import org.example.utility.DeadlineCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds NEW reports whose 7-day acknowledgement deadline is within the warning window or has
+ * passed, and publishes them as {@link DeadlineEscalationEvent} batches.
+ *
+ * Each level keeps a persisted (deadlineAt, reportId) watermark and only reads the index range
+ * between it and its horizon, so a run touches the reports that became due since the last one
+ * instead of every open report. Runs on a schedule when app.deadline-scanner.enabled=true
+ * (see SchedulingConfig), from DeadlineScanHandler on Lambda, or on demand through the
+ * authenticated POST /whistleblower/admin/scanDeadlines.
+ */
+@Slf4j
+@Service
+public class DeadlineScanner {
+
+    private final WhistleblowerReportRepository reportRepo;
+    private final DeadlineScanStateRepository stateRepo;
+    private final ApplicationEventPublisher events;
+    private final int batchSize;
+    private final Duration warningWindow;
+
+    public DeadlineScanner(
+            WhistleblowerReportRepository reportRepo,
+            DeadlineScanStateRepository stateRepo,
+            ApplicationEventPublisher events,
+            @Value("${app.deadline-scanner.batch-size:500}") int batchSize,
+            @Value("${app.deadline-scanner.warning-hours:48}") long warningHours) {
+        this.reportRepo = reportRepo;
+        this.stateRepo = stateRepo;
+        this.events = events;
+        this.batchSize = batchSize;
+        this.warningWindow = Duration.ofHours(warningHours);
+    }
+
+    @Scheduled(cron = "${app.deadline-scanner.cron:0 */15 * * * *}")
+    public void scheduledScan() {
+        Map<Level, Integer> escalated = scan(Instant.now());
+        log.info("deadline scan: {}", escalated);
+    }
+
+    /**
+     * @return number of reports escalated per level
+     */
+    public Map<Level, Integer> scan(Instant now) {
+        Map<Level, Integer> escalated = new EnumMap<>(Level.class);
+        // Overdue first, so a report that passed both thresholds since the last run is only reported as overdue
+        escalated.put(Level.OVERDUE, scanLevel(Level.OVERDUE, null, now));
+        escalated.put(Level.APPROACHING, scanLevel(Level.APPROACHING, now, now.plus(warningWindow)));
+        return escalated;
+    }
+
+    // Pages through (watermark, dueBy) and advances the watermark after every published batch
+    private int scanLevel(Level level, Instant skipBefore, Instant dueBy) {
+        DeadlineCursor cursor = stateRepo.findById(level.name())
+                .map(state -> new DeadlineCursor(state.getDeadlineAt(), state.getReportId()))
+                .orElse(null);
+        if (skipBefore != null && (cursor == null || cursor.getDeadlineAt().isBefore(skipBefore))) {
+            cursor = new DeadlineCursor(skipBefore, "");
+        }
+
+        int total = 0;
+        while (true) {
+            List<DueReportView> batch = reportRepo.findDueNewReports(cursor, dueBy, batchSize);
+            if (batch.isEmpty()) {
+                return total;
+            }
+
+            events.publishEvent(new DeadlineEscalationEvent(level, batch));
+            total += batch.size();
+
+            DueReportView last = batch.get(batch.size() - 1);
+            cursor = new DeadlineCursor(last.getDeadlineAt(), last.getReportId());
+            stateRepo.save(DeadlineScanState.builder()
+                    .level(level.name())
+                    .deadlineAt(cursor.getDeadlineAt())
+                    .reportId(cursor.getReportId())
+                    .updatedAt(Instant.now())
+                    .build());
+
+            if (batch.size() < batchSize) {
+                return total;
+            }
+        }
+    }
+}
@@ -1,41 +1,245 @@
 package org.example.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.dto.PresignUploadRequest;
+import org.example.dto.PresignedUploadResponse;
+import org.example.error.ApiException;
+import org.example.utility.TtlCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import software.amazon.awssdk.core.ResponseBytes;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
-import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @Service
 public class S3Service {
 
+    // S3 rejects multipart parts smaller than 5 MiB (except the last one)
+    private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
     @Autowired
     private S3Client s3Client;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // HEAD checks are cheap reads, they must not queue behind uploads on the heap-bounded upload pool
+    @Autowired
+    private ConcurrentReads concurrentReads;
+
     @Value("${aws.bucket.name}")
     private String bucketName;
 
+    // Files up to one part are streamed with a single PUT, larger ones go through multipart upload
+    @Value("${app.s3.part-size-mb:8}")
+    private int partSizeMb;
+
+    // Caps concurrent uploads per container, so peak heap is roughly parallelism x part size
+    @Value("${app.s3.upload-parallelism:4}")
+    private int uploadParallelism;
+
+    // Limits for direct-to-S3 uploads, enforced through the signed Content-Length / Content-Type
+    @Value("${app.s3.max-upload-mb:25}")
+    private long maxUploadMb;
+
+    @Value("${app.s3.allowed-content-types:application/pdf,image/jpeg,image/png,image/gif,text/plain,application/msword,application/vnd.openxmlformats-officedocument.wordprocessingml.document}")
+    private String allowedContentTypes;
+
+    // Presigned GET URLs are valid for 15 minutes; cached ones are handed out for at most 10 of those,
+    // so a client always gets at least 5 minutes to use a URL
+    private static final Duration PRESIGNED_URL_VALIDITY = Duration.ofMinutes(15);
+    private static final Duration PRESIGNED_URL_CACHE_TTL = Duration.ofMinutes(10);
+
+    @Value("${app.s3.presigned-url-cache-size:5000}")
+    private int presignedUrlCacheSize;
+
+    private int partSize;
+    private Set<String> allowedContentTypeSet;
+    private TtlCache<String, String> presignedUrlCache;
+    private ExecutorService uploadExecutor;
+
+    @PostConstruct
+    void init() {
+        partSize = Math.max(MIN_PART_SIZE, partSizeMb * 1024 * 1024);
+        allowedContentTypeSet = Arrays.stream(allowedContentTypes.split(","))
+                .map(String::trim)
+                .map(String::toLowerCase)
+                .collect(Collectors.toUnmodifiableSet());
+        uploadExecutor = Executors.newFixedThreadPool(uploadParallelism);
+        presignedUrlCache = new TtlCache<>(presignedUrlCacheSize, PRESIGNED_URL_CACHE_TTL.toMillis());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        uploadExecutor.shutdown();
+    }
+
     public String uploadFile(MultipartFile file) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            String key = upload(file);
+            outcome = "success";
+            return key;
+        } finally {
+            sample.stop(meterRegistry.timer("whistleblower.s3.upload",
+                    "outcome", outcome,
+                    "multipart", String.valueOf(file.getSize() > partSize)));
+        }
+    }
+
+    private String upload(MultipartFile file) throws IOException {
         String fileName = java.util.UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-        s3Client.putObject(PutObjectRequest.builder()
-                .bucket(bucketName)
-                .key(fileName)
-                .build(),
-                RequestBody.fromBytes(file.getBytes()));
+        long size = file.getSize();
+
+        if (size <= partSize) {
+            // Stream straight from the multipart part instead of copying it into a byte[] first
+            try (InputStream in = file.getInputStream()) {
+                s3Client.putObject(PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(fileName)
+                        .contentType(file.getContentType())
+                        .contentLength(size)
+                        .build(),
+                        RequestBody.fromInputStream(in, size));
+            }
+        } else {
+            multipartUpload(fileName, file);
+        }
         return fileName;
     }
 
+    /**
+     * Uploads all files concurrently (bounded by app.s3.upload-parallelism) and returns their keys
+     * in the order of the input list.
+     */
+    public List<String> uploadFiles(List<MultipartFile> files) throws IOException {
+        if (files.size() == 1) {
+            return List.of(uploadFile(files.get(0)));
+        }
+
+        List<Future<String>> uploads = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            uploads.add(uploadExecutor.submit(() -> uploadFile(file)));
+        }
+
+        List<String> keys = new ArrayList<>(files.size());
+        try {
+            for (Future<String> upload : uploads) {
+                keys.add(upload.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while uploading attachments", e);
+        } catch (ExecutionException e) {
+            uploads.forEach(upload -> upload.cancel(true));
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Attachment upload failed", e.getCause());
+        }
+        return keys;
+    }
+
+    // Reads the file one part at a time into a single reused buffer, so memory stays at one part
+    // no matter how large the attachment is
+    private void multipartUpload(String key, MultipartFile file) throws IOException {
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(file.getContentType())
+                .build())
+                .uploadId();
+
+        try (InputStream in = file.getInputStream()) {
+            List<CompletedPart> parts = new ArrayList<>();
+            byte[] buffer = new byte[partSize];
+            int partNumber = 1;
+            int read;
+            while ((read = in.readNBytes(buffer, 0, buffer.length)) > 0) {
+                UploadPartResponse response = s3Client.uploadPart(UploadPartRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .uploadId(uploadId)
+                        .partNumber(partNumber)
+                        .contentLength((long) read)
+                        .build(),
+                        RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, read), read));
+                parts.add(CompletedPart.builder()
+                        .partNumber(partNumber)
+                        .eTag(response.eTag())
+                        .build());
+                partNumber++;
+            }
+
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+        } catch (IOException | RuntimeException e) {
+            // Don't leave orphaned parts behind (they are billed until aborted)
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+            throw e;
+        }
+    }
+
     @Autowired
     private software.amazon.awssdk.services.s3.presigner.S3Presigner s3Presigner;
 
     public String getPresignedUrl(String key) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        // Repeated views inside the cache window skip signing entirely
+        String cached = presignedUrlCache.get(key);
+        if (cached != null) {
+            sample.stop(meterRegistry.timer("whistleblower.s3.presign", "cache", "hit"));
+            return cached;
+        }
+
         GetObjectRequest getObjectRequest = GetObjectRequest.builder()
                 .bucket(bucketName)
                 .key(key)
@@ -43,14 +247,115 @@ public class S3Service {
 
         software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest presignRequest = software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest
                 .builder()
-                .signatureDuration(java.time.Duration.ofMinutes(15))
+                .signatureDuration(PRESIGNED_URL_VALIDITY)
                 .getObjectRequest(getObjectRequest)
                 .build();
 
         software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest presignedRequest = s3Presigner
                 .presignGetObject(presignRequest);
 
-        return presignedRequest.url().toString();
+        String url = presignedRequest.url().toString();
+        presignedUrlCache.put(key, url);
+        sample.stop(meterRegistry.timer("whistleblower.s3.presign", "cache", "miss"));
+        return url;
+    }
+
+    // Presigned GET URLs for many keys at once, in input order (signing is local, no S3 call)
+    public Map<String, String> getPresignedUrls(Collection<String> keys) {
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (String key : keys) {
+            urls.put(key, getPresignedUrl(key));
+        }
+        return urls;
+    }
+
+    /**
+     * Issues a presigned PUT so the client uploads the attachment straight to S3.
+     * Content-Type and Content-Length are part of the signature, so S3 rejects any upload that
+     * does not match the declared type and size.
+     */
+    public PresignedUploadResponse presignUpload(PresignUploadRequest request) {
+        if (request.getFileName() == null || request.getFileName().isBlank()) {
+            throw new ApiException(400, "File name must not be empty");
+        }
+        if (request.getSize() == null || request.getSize() <= 0 || request.getSize() > maxUploadMb * 1024 * 1024) {
+            throw new ApiException(400, "File size must be between 1 byte and " + maxUploadMb + " MB");
+        }
+        String contentType = request.getContentType() == null ? "" : request.getContentType().toLowerCase();
+        if (!allowedContentTypeSet.contains(contentType)) {
+            throw new ApiException(400, "Content type not allowed: " + request.getContentType());
+        }
+
+        // Same key format as uploadFile, so downstream consumers (file-url, preview) don't care how it got there
+        String key = java.util.UUID.randomUUID().toString() + "_" + sanitizeFileName(request.getFileName());
+
+        PutObjectPresignRequest presignRequest = PutObjectPresignRequest.builder()
+                .signatureDuration(Duration.ofMinutes(10))
+                .putObjectRequest(PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .contentType(contentType)
+                        .contentLength(request.getSize())
+                        .build())
+                .build();
+
+        PresignedPutObjectRequest presigned = s3Presigner.presignPutObject(presignRequest);
+
+        // Browsers set Host and Content-Length themselves and refuse to let scripts set them
+        Map<String, String> headers = new LinkedHashMap<>();
+        presigned.signedHeaders().forEach((name, values) -> {
+            if (!name.equalsIgnoreCase("host") && !name.equalsIgnoreCase("content-length")) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+
+        return PresignedUploadResponse.builder()
+                .key(key)
+                .url(presigned.url().toString())
+                .method("PUT")
+                .headers(headers)
+                .expiresAt(presigned.expiration())
+                .build();
     }
 
+    /**
+     * Cheap existence check (HEAD) for attachment keys a client claims to have uploaded.
+     * The checks run concurrently through ConcurrentReads.
+     */
+    public void verifyUploaded(List<String> keys) throws IOException {
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+
+        List<CompletableFuture<Boolean>> checks = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            checks.add(concurrentReads.submit(() -> verifyUploaded(key)));
+        }
+        for (CompletableFuture<Boolean> check : checks) {
+            ConcurrentReads.await(check);
+        }
+    }
+
+    private boolean verifyUploaded(String key) {
+        if (key == null || key.isBlank()) {
+            throw new ApiException(400, "Attachment key must not be empty");
+        }
+        try {
+            HeadObjectResponse head = s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .build());
+            if (head.contentLength() > maxUploadMb * 1024 * 1024) {
+                throw new ApiException(400, "Attachment too large: " + key);
+            }
+            return true;
+        } catch (NoSuchKeyException e) {
+            throw new ApiException(400, "Attachment not found: " + key);
+        }
+    }
+
+    private static String sanitizeFileName(String fileName) {
+        String cleaned = fileName.replaceAll("[^A-Za-z0-9._-]", "_");
+        return cleaned.length() > 100 ? cleaned.substring(cleaned.length() - 100) : cleaned;
+    }
 }
@@ -0,0 +1,113 @@
+package org.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.error.QuietApiException;
+import org.example.model.WhistleblowerReport;
+import org.example.repository.WhistleblowerReportRepository;
+import org.example.utility.TokenBucket;
+import org.example.utility.TtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Reporter access by secret key. Only the SHA-256 digest of a key is stored and queried; digests
+ * that matched nothing are remembered for a while, so repeated wrong keys are answered from memory,
+ * and each client gets a token bucket of lookups, so a burst of guesses is turned away before it
+ * reaches MongoDB. All failures are stackless {@link QuietApiException}s.
+ */
+@Slf4j
+@Service
+public class SecretKeyLookup {
+
+    // Stackless and immutable, so one instance serves every wrong key
+    private static final QuietApiException INVALID_KEY = new QuietApiException(404, "Invalid secret key");
+    private static final QuietApiException TOO_MANY_LOOKUPS = new QuietApiException(429, "Too many requests");
+
+    private final WhistleblowerReportRepository reportRepo;
+    private final boolean legacyLookup;
+    private final int bucketCapacity;
+    private final double refillPerSecond;
+
+    private final TtlCache<String, Boolean> unknownHashes;
+    private final TtlCache<String, TokenBucket> buckets;
+
+    public SecretKeyLookup(
+            WhistleblowerReportRepository reportRepo,
+            @Value("${app.secret-key.legacy-lookup:true}") boolean legacyLookup,
+            @Value("${app.secret-key.negative-cache-size:10000}") int negativeCacheSize,
+            @Value("${app.secret-key.negative-cache-ttl-seconds:300}") long negativeCacheTtlSeconds,
+            @Value("${app.secret-key.rate-limit.burst:20}") int bucketCapacity,
+            @Value("${app.secret-key.rate-limit.per-second:1}") double refillPerSecond,
+            @Value("${app.secret-key.rate-limit.max-clients:10000}") int maxClients) {
+        this.reportRepo = reportRepo;
+        this.legacyLookup = legacyLookup;
+        this.bucketCapacity = bucketCapacity;
+        this.refillPerSecond = refillPerSecond;
+        this.unknownHashes = new TtlCache<>(negativeCacheSize, negativeCacheTtlSeconds * 1000);
+        // A bucket is touched on every lookup, so it is only dropped once it has been idle long enough
+        // to be full again; a new bucket for that client then behaves exactly like the dropped one
+        long bucketTtlMillis = (long) Math.ceil(bucketCapacity / refillPerSecond * 1000);
+        this.buckets = new TtlCache<>(maxClients, bucketTtlMillis);
+    }
+
+    public static String hash(String secretKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(secretKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Takes one lookup from the client's bucket.
+     *
+     * @throws QuietApiException 429 when the bucket is empty
+     */
+    public void acquire(String clientId) {
+        TokenBucket bucket = buckets.touch(clientId, () -> new TokenBucket(bucketCapacity, refillPerSecond));
+        if (!bucket.tryTake()) {
+            throw TOO_MANY_LOOKUPS;
+        }
+    }
+
+    /**
+     * @throws QuietApiException 404 when no report has this key
+     */
+    public WhistleblowerReport find(String secretKey) {
+        if (secretKey == null || secretKey.isBlank()) {
+            throw INVALID_KEY;
+        }
+        String hash = hash(secretKey);
+        if (unknownHashes.get(hash) != null) {
+            throw INVALID_KEY;
+        }
+
+        return reportRepo.findBySecretKeyHash(hash)
+                .or(() -> legacyLookup ? reportRepo.migrateLegacySecretKey(secretKey, hash) : Optional.empty())
+                .orElseThrow(() -> {
+                    unknownHashes.put(hash, Boolean.TRUE);
+                    return INVALID_KEY;
+                });
+    }
+
+    // A new report's key might have been probed before it existed (practically never, but cheap)
+    public void forget(String secretKeyHash) {
+        unknownHashes.invalidate(secretKeyHash);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void sparsifyLegacyIndex() {
+        if (reportRepo.sparsifyLegacySecretKeyIndex()) {
+            log.warn("replaced the unique index on the plaintext secretKey field with a sparse one");
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.service;
+
+import org.example.model.Tenant;
+import org.example.repository.TenantRepository;
+import org.example.utility.TtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-through cache in front of {@link TenantRepository} for the hot lookups
+ * (by tenantId on every report request, by email on every /admin/me).
+ * Only found tenants are cached; TenantService invalidates on update/delete and the TTL bounds
+ * how long other warm containers can serve a stale tenant.
+ */
+@Component
+public class TenantCache {
+
+    private final TenantRepository repository;
+    private final TtlCache<String, Tenant> byTenantId;
+    private final TtlCache<String, Tenant> byEmail;
+
+    public TenantCache(TenantRepository repository,
+            @Value("${app.tenant-cache.max-size:1000}") int maxSize,
+            @Value("${app.tenant-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.repository = repository;
+        this.byTenantId = new TtlCache<>(maxSize, ttlSeconds * 1000);
+        this.byEmail = new TtlCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    public Optional<Tenant> findByTenantId(String tenantId) {
+        Tenant cached = byTenantId.get(tenantId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Tenant> tenant = repository.findByTenantId(tenantId);
+        tenant.ifPresent(this::put);
+        return tenant;
+    }
+
+    public Optional<Tenant> findByEmail(String email) {
+        Tenant cached = byEmail.get(email);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Tenant> tenant = repository.findByEmail(email);
+        tenant.ifPresent(this::put);
+        return tenant;
+    }
+
+    public void invalidate(Tenant tenant) {
+        if (tenant.getTenantId() != null) {
+            byTenantId.invalidate(tenant.getTenantId());
+        }
+        if (tenant.getEmail() != null) {
+            byEmail.invalidate(tenant.getEmail());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("tenantIdHits", byTenantId.hitCount());
+        stats.put("tenantIdMisses", byTenantId.missCount());
+        stats.put("tenantIdSize", byTenantId.size());
+        stats.put("emailHits", byEmail.hitCount());
+        stats.put("emailMisses", byEmail.missCount());
+        stats.put("emailSize", byEmail.size());
+        return stats;
+    }
+
+    private void put(Tenant tenant) {
+        if (tenant.getTenantId() != null) {
+            byTenantId.put(tenant.getTenantId(), tenant);
+        }
+        if (tenant.getEmail() != null) {
+            byEmail.put(tenant.getEmail(), tenant);
+        }
+    }
+}
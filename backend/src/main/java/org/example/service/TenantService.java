@@ -7,15 +7,16 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.example.error.ApiException;
 
-import java.util.UUID;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class TenantService {
     private final TenantRepository repository;
+    private final TenantCache tenantCache;
 
     public Tenant createTenant(Tenant tenant) {
 
@@ -68,6 +69,9 @@ public class TenantService {
         Tenant existingTenant = repository.findByTenantId(tenantId)
                 .orElseThrow(() -> new ApiException(404, "Tenant not found with tenantId: " + tenantId));
 
+        // Drop the cached entries before the email can change
+        tenantCache.invalidate(existingTenant);
+
         // ✅ Update fields ONLY if they are present in the request
         if (newTenantInfo.getCompanyName() != null && !newTenantInfo.getCompanyName().isBlank()) {
             existingTenant.setCompanyName(newTenantInfo.getCompanyName());
@@ -83,7 +87,9 @@ public class TenantService {
         // ✅ Audit
         existingTenant.setUpdatedAt(Instant.now());
 
-        return repository.save(existingTenant);
+        Tenant savedTenant = repository.save(existingTenant);
+        tenantCache.invalidate(savedTenant);
+        return savedTenant;
     }
 
     public Tenant deleteTenant(String tenantId) {
@@ -92,11 +98,12 @@ public class TenantService {
             throw new ApiException(404, "Tenant not found with id: " + tenantId);
         }
         repository.delete(existingTenant.get());
+        tenantCache.invalidate(existingTenant.get());
         return existingTenant.get();
     }
 
     public Tenant findByEmail(String email) {
-        return repository.findByEmail(email)
+        return tenantCache.findByEmail(email)
                 .orElseThrow(() -> new ApiException(404, "Tenant not found with email: " + email));
     }
 
@@ -0,0 +1,83 @@
+package org.example.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.dto.TenantSummaryResponse;
+import org.example.error.ApiException;
+import org.example.model.ReportStatus;
+import org.example.model.TenantCounters;
+import org.example.repository.TenantCountersRepository;
+import org.example.repository.WhistleblowerReportRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// Dashboard numbers from the tenant_counters document instead of counting the tenant's reports
+@Service
+@RequiredArgsConstructor
+public class TenantSummaryService {
+
+    private final TenantCountersRepository countersRepo;
+    private final WhistleblowerReportRepository reportRepo;
+    private final TenantCache tenantCache;
+    private final ConcurrentReads concurrentReads;
+
+    public TenantSummaryResponse getSummary(String tenantId) {
+        requireTenant(tenantId);
+
+        // The overdue count does not depend on the counters document, both queries run at once
+        CompletableFuture<Long> overdue = concurrentReads.submit(() -> reportRepo.countOverdue(tenantId, Instant.now()));
+
+        // Counters that were never rebuilt (missing, or only the increments since the first write
+        // after deploying them) do not cover the tenant's older reports yet
+        Optional<TenantCounters> counters = countersRepo.findById(tenantId);
+        if (counters.map(TenantCounters::getRebuiltAt).isEmpty()) {
+            rebuild(tenantId);
+            counters = countersRepo.findById(tenantId);
+        }
+
+        Map<ReportStatus, Long> byStatus = new EnumMap<>(ReportStatus.class);
+        for (ReportStatus status : ReportStatus.values()) {
+            byStatus.put(status, counters
+                    .map(TenantCounters::getByStatus)
+                    .map(counts -> counts.getOrDefault(status.name(), 0L))
+                    .orElse(0L));
+        }
+
+        return TenantSummaryResponse.builder()
+                .tenantId(tenantId)
+                .total(counters.map(TenantCounters::getTotal).orElse(0L))
+                .byStatus(byStatus)
+                .unreadMessages(counters.map(TenantCounters::getUnreadMessages).orElse(0L))
+                .overdue(ConcurrentReads.await(overdue))
+                .updatedAt(counters.map(TenantCounters::getUpdatedAt).orElse(null))
+                .build();
+    }
+
+    // Recomputes the counters of one tenant from its reports and messages
+    public TenantSummaryResponse reconcile(String tenantId) {
+        requireTenant(tenantId);
+        rebuild(tenantId);
+        return getSummary(tenantId);
+    }
+
+    // Recomputes the counters of every tenant in one aggregation
+    public void reconcileAll() {
+        rebuild(null);
+    }
+
+    private void rebuild(String tenantId) {
+        if (!countersRepo.rebuild(tenantId)) {
+            throw new ApiException(503, "Report counters are changing too fast to rebuild, try again");
+        }
+    }
+
+    private void requireTenant(String tenantId) {
+        if (tenantCache.findByTenantId(tenantId).isEmpty()) {
+            throw new ApiException(404, "Tenant not found with id: " + tenantId);
+        }
+    }
+}
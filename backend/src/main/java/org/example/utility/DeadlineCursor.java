@@ -0,0 +1,15 @@
+package org.example.utility;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Keyset position of the deadline scan: the (deadlineAt, reportId) of the last report handled.
+ */
+@Value
+public class DeadlineCursor {
+
+    Instant deadlineAt;
+    String reportId;
+}
@@ -0,0 +1,131 @@
+package org.example.utility;
+
+import lombok.Getter;
+import org.example.error.ApiException;
+import org.example.model.ConversationMessage;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Which slice of a conversation to return, by per-report message sequence.
+ * <ul>
+ * <li>{@code since}: messages newer than that seq, oldest first (incremental sync / polling)</li>
+ * <li>{@code before}: the page of messages right before that seq (scrolling back)</li>
+ * <li>neither: the newest messages</li>
+ * </ul>
+ * Pages are always returned oldest first.
+ * <p>
+ * A seq is allocated on the report before its message is inserted, so message n+1 can be visible
+ * while message n is still being written. Pages a client continues from with {@code since} (forward
+ * and newest pages) therefore end right before such a hole; it is filled by the time of the next
+ * request. A hole whose next message is older than {@link #GAP_GRACE} belongs to a write that failed
+ * after allocating its seq and is skipped.
+ */
+@Getter
+public class MessageWindow {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 200;
+
+    // Longer than any request that allocates a seq may run (function timeout 30 s)
+    public static final Duration GAP_GRACE = Duration.ofSeconds(60);
+
+    private final Long since;
+    private final Long before;
+    private final int limit;
+
+    private MessageWindow(Long since, Long before, int limit) {
+        this.since = since;
+        this.before = before;
+        this.limit = limit;
+    }
+
+    public static MessageWindow of(Long since, Long before, Integer limit) {
+        if (since != null && before != null) {
+            throw new ApiException(400, "Use either since or before, not both");
+        }
+        int pageSize = limit == null ? DEFAULT_LIMIT : limit;
+        if (pageSize < 1 || pageSize > MAX_LIMIT) {
+            throw new ApiException(400, "Limit must be between 1 and " + MAX_LIMIT);
+        }
+        return new MessageWindow(since, before, pageSize);
+    }
+
+    public boolean isForward() {
+        return since != null;
+    }
+
+    // Condition on the message seq, or null when starting from the newest message
+    public Criteria seqCriteria() {
+        if (since != null) {
+            return Criteria.where("seq").gt(since);
+        }
+        if (before != null) {
+            return Criteria.where("seq").lt(before);
+        }
+        return null;
+    }
+
+    // Messages stored before seq existed read as seq 0 until they are backfilled, createdAt orders them meanwhile
+    public Sort sort() {
+        Sort.Direction direction = isForward() ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return Sort.by(direction, "seq", "createdAt");
+    }
+
+    // One extra row tells whether there is more in the paging direction
+    public int fetchSize() {
+        return limit + 1;
+    }
+
+    // A forward page cut at a hole has no more for now, the rest comes with the next since request
+    public boolean hasMore(List<ConversationMessage> fetched) {
+        return fetched.size() > limit && (!isForward() || page(fetched).size() == limit);
+    }
+
+    public List<ConversationMessage> page(List<ConversationMessage> fetched) {
+        List<ConversationMessage> page = new ArrayList<>(fetched.subList(0, Math.min(limit, fetched.size())));
+        if (!isForward()) {
+            Collections.reverse(page);
+        }
+        if (before != null) {
+            return page; // older than what the client has, nothing of it is still in flight
+        }
+        return page.subList(0, committedPrefix(page));
+    }
+
+    /**
+     * Where the next {@code since} request (or WebSocket replay) of a client that got this page has
+     * to start: the newest seq it has seen with no hole before it. Not meaningful for {@code before}.
+     */
+    public long resumeSeq(List<ConversationMessage> page) {
+        long seq = since == null ? 0 : Math.max(since, 0);
+        for (ConversationMessage message : page) {
+            seq = Math.max(seq, message.getSeq());
+        }
+        return seq;
+    }
+
+    // Length of the leading run of an oldest-first page with no hole that may still be filled
+    private int committedPrefix(List<ConversationMessage> page) {
+        Instant staleBefore = Instant.now().minus(GAP_GRACE);
+        // The newest page has nothing to compare its oldest message with
+        Long previous = since;
+        for (int i = 0; i < page.size(); i++) {
+            ConversationMessage message = page.get(i);
+            long seq = message.getSeq();
+            // Messages without a positive seq predate sequencing and are never in flight
+            boolean hole = seq > 0 && previous != null && seq > Math.max(previous, 0) + 1;
+            if (hole && message.getCreatedAt() != null && message.getCreatedAt().isAfter(staleBefore)) {
+                return i;
+            }
+            previous = seq;
+        }
+        return page.size();
+    }
+}
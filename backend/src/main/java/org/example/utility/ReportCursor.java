@@ -0,0 +1,40 @@
+package org.example.utility;
+
+import lombok.Value;
+import org.example.error.ApiException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position for the tenant report listing.
+ * Encodes the (createdAt, reportId) of the last row of a page so the next page
+ * can seek directly to it.
+ */
+@Value
+public class ReportCursor {
+
+    Instant createdAt;
+    String reportId;
+
+    public String encode() {
+        String raw = createdAt.toEpochMilli() + ":" + reportId;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ReportCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            Instant createdAt = Instant.ofEpochMilli(Long.parseLong(raw.substring(0, separator)));
+            return new ReportCursor(createdAt, raw.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Invalid cursor");
+        }
+    }
+}
@@ -6,6 +6,8 @@ public final class SecretKeyGenerator {
 
     private static final SecureRandom secureRandom = new SecureRandom();
 
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     private SecretKeyGenerator() {
         // prevent instantiation
     }
@@ -16,11 +18,13 @@ public final class SecretKeyGenerator {
         return bytesToHex(bytes);
     }
 
-    private static String bytesToHex(byte[] bytes) {
-        StringBuilder sb = new StringBuilder(bytes.length * 2);
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b));
+    static String bytesToHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int b = bytes[i] & 0xff;
+            hex[i * 2] = HEX_DIGITS[b >>> 4];
+            hex[i * 2 + 1] = HEX_DIGITS[b & 0x0f];
         }
-        return sb.toString();
+        return new String(hex);
     }
 }
@@ -0,0 +1,108 @@
+package org.example.utility;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Small bounded, TTL-evicting in-process cache.
+ * Entries expire {@code ttlMillis} after they were put (or last {@link #touch touched}); once
+ * {@code maxSize} is reached the least recently used entry is dropped. Meant for hot lookups on a
+ * warm Lambda container where pulling in a cache library is not worth the extra cold-start cost.
+ */
+public class TtlCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public TtlCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        // access order, so removeEldestEntry evicts the least recently used entry
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > TtlCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return the cached value, or null if absent or expired
+     */
+    public V get(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                hits.increment();
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Returns the cached value, creating it if absent or expired, and restarts the entry's TTL, so
+     * entries used this way expire {@code ttlMillis} after their last access instead of their put.
+     */
+    public V touch(K key, Supplier<V> ifAbsent) {
+        synchronized (entries) {
+            long now = System.nanoTime();
+            Entry<V> entry = entries.get(key);
+            V value;
+            if (entry != null && entry.expiresAt - now > 0) {
+                hits.increment();
+                value = entry.value;
+            } else {
+                misses.increment();
+                value = ifAbsent.get();
+            }
+            entries.put(key, new Entry<>(value, now + ttlNanos));
+            return value;
+        }
+    }
+
+    public void put(K key, V value) {
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
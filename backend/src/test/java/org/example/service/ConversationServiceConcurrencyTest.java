@@ -0,0 +1,259 @@
+package org.example.service;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.example.error.ApiException;
+import org.example.model.ConversationMessage;
+import org.example.model.MessageSender;
+import org.example.model.ReportStatus;
+import org.example.model.Tenant;
+import org.example.model.TenantCounters;
+import org.example.model.WhistleblowerReport;
+import org.example.repository.ConversationMessageRepository;
+import org.example.repository.ConversationMessageRepositoryImpl;
+import org.example.repository.TenantCountersRepository;
+import org.example.repository.TenantCountersRepositoryImpl;
+import org.example.repository.TenantRepository;
+import org.example.repository.WhistleblowerReportRepository;
+import org.example.repository.WhistleblowerReportRepositoryImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many writers on one report at the same time: every message must get its own seq, every counter
+ * must end up at the number of writes that changed it, and every status transition must be
+ * applied (and counted) exactly once. Also pins the number of round trips per write.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ConversationServiceConcurrencyTest {
+
+    @Container
+    static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    private static final String TENANT = "tenant-1";
+
+    private static final int WRITERS = 32;
+    private static final int MESSAGES_PER_WRITER = 10;
+
+    private final RecordedCommands commands = new RecordedCommands();
+
+    private MongoClient client;
+    private WhistleblowerReportRepository reportRepo;
+    private ConversationMessageRepository messageRepo;
+    private TenantCountersRepository countersRepo;
+    private ConversationService service;
+
+    @BeforeEach
+    void setUp() {
+        client = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(mongo.getReplicaSetUrl()))
+                .addCommandListener(commands)
+                .build());
+        MongoTemplate mongoTemplate = new MongoTemplate(client, "whistleblower_" + UUID.randomUUID().toString().replace("-", ""));
+        MongoRepositoryFactory factory = new MongoRepositoryFactory(mongoTemplate);
+
+        reportRepo = factory.getRepository(WhistleblowerReportRepository.class,
+                RepositoryFragments.just(new WhistleblowerReportRepositoryImpl(mongoTemplate)));
+        messageRepo = factory.getRepository(ConversationMessageRepository.class,
+                RepositoryFragments.just(new ConversationMessageRepositoryImpl(mongoTemplate)));
+        countersRepo = factory.getRepository(TenantCountersRepository.class,
+                RepositoryFragments.just(new TenantCountersRepositoryImpl(mongoTemplate)));
+        TenantRepository tenantRepo = factory.getRepository(TenantRepository.class);
+
+        tenantRepo.save(Tenant.builder().tenantId(TENANT).email("compliance@example.org").active(true).build());
+        service = new ConversationService(
+                reportRepo,
+                messageRepo,
+                new TenantCache(tenantRepo, 1000, 300),
+                countersRepo,
+                new SecretKeyLookup(reportRepo, false, 10_000, 300, 20, 1, 10_000));
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void parallelRepliesLoseNoUpdates() throws Exception {
+        WhistleblowerReport report = service.createReport(TENANT, "Expense fraud", "Invoices are approved twice.", List.of());
+        String reportId = report.getReportId();
+
+        // Half the writers are compliance officers replying (the first reply moves the report to
+        // IN_PROGRESS), half are the reporter; one more writer acknowledges the report meanwhile
+        List<Callable<Object>> writers = new ArrayList<>();
+        for (int writer = 0; writer < WRITERS; writer++) {
+            MessageSender sender = writer % 2 == 0 ? MessageSender.COMPLIANCE_TEAM : MessageSender.REPORTER;
+            writers.add(() -> {
+                for (int i = 0; i < MESSAGES_PER_WRITER; i++) {
+                    service.addMessage(reportId, sender, sender + " message " + i, List.of());
+                }
+                return null;
+            });
+        }
+        writers.add(() -> {
+            try {
+                return service.updateReportStatus(reportId, "RECEIVED");
+            } catch (ApiException e) {
+                // the first reply got there first, IN_PROGRESS cannot go back to RECEIVED
+                assertEquals(409, e.getStatusCode());
+                return null;
+            }
+        });
+        runConcurrently(writers);
+
+        int messages = WRITERS * MESSAGES_PER_WRITER;
+        int perSide = messages / 2;
+
+        WhistleblowerReport stored = reportRepo.findByReportId(reportId).orElseThrow();
+        assertEquals(ReportStatus.IN_PROGRESS, stored.getStatus());
+        assertEquals(messages, stored.getMessageSeq());
+        assertEquals(perSide, stored.getUnreadFromReporter());
+        assertEquals(perSide, stored.getUnreadFromComplianceTeam());
+        // fields nobody wrote are still there, nothing saved a stale copy of the report over them
+        assertEquals("Expense fraud", stored.getSubject());
+        assertEquals(report.getCreatedAt().toEpochMilli(), stored.getCreatedAt().toEpochMilli());
+
+        List<ConversationMessage> storedMessages = messageRepo.findByReportIdOrderByCreatedAtAsc(reportId);
+        assertEquals(messages, storedMessages.size());
+        Set<Long> seqs = storedMessages.stream().map(ConversationMessage::getSeq).collect(Collectors.toSet());
+        assertEquals(LongStream.rangeClosed(1, messages).boxed().collect(Collectors.toSet()), seqs);
+
+        TenantCounters counters = countersRepo.findById(TENANT).orElseThrow();
+        assertEquals(1, counters.getTotal());
+        assertEquals(Map.of(ReportStatus.IN_PROGRESS.name(), 1L), nonZero(counters.getByStatus()));
+        assertEquals(perSide, counters.getUnreadMessages());
+    }
+
+    @Test
+    void parallelStatusChangesApplyOneTransition() throws Exception {
+        String reportId = service.createReport(TENANT, "Safety", "Fire exits are locked.", List.of()).getReportId();
+
+        // Everyone tries to close or cancel the NEW report at once; terminal statuses cannot be
+        // reached from each other, so exactly one transition may happen
+        List<Callable<Object>> writers = new ArrayList<>();
+        List<Integer> conflicts = new CopyOnWriteArrayList<>();
+        for (int writer = 0; writer < WRITERS; writer++) {
+            String target = writer % 2 == 0 ? "CLOSED" : "CANCELED";
+            writers.add(() -> {
+                try {
+                    return service.updateReportStatus(reportId, target);
+                } catch (ApiException e) {
+                    conflicts.add(e.getStatusCode());
+                    return null;
+                }
+            });
+        }
+        runConcurrently(writers);
+
+        ReportStatus winner = reportRepo.findByReportId(reportId).orElseThrow().getStatus();
+        assertTrue(winner == ReportStatus.CLOSED || winner == ReportStatus.CANCELED, "status " + winner);
+        // the writers asking for the other terminal status are refused, the rest see it already done
+        assertEquals(WRITERS / 2, conflicts.size());
+        assertTrue(conflicts.stream().allMatch(status -> status == 409));
+
+        TenantCounters counters = countersRepo.findById(TENANT).orElseThrow();
+        assertEquals(Map.of(winner.name(), 1L), nonZero(counters.getByStatus()));
+    }
+
+    @Test
+    void roundTripsPerWrite() {
+        String reportId = service.createReport(TENANT, "Bribery", "Gifts from a supplier.", List.of()).getReportId();
+        service.addMessage(reportId, MessageSender.COMPLIANCE_TEAM, "We are looking into it.", List.of());
+
+        // The read-modify-save version needed find + insert + a full-document update for every reply
+        commands.clear();
+        service.addMessage(reportId, MessageSender.COMPLIANCE_TEAM, "Could you name the supplier?", List.of());
+        assertEquals(List.of("findAndModify", "insert"), commands.names());
+
+        // A reporter message also counts as unread on the tenant dashboard
+        commands.clear();
+        service.addMessage(reportId, MessageSender.REPORTER, "It is ACME Ltd.", List.of());
+        assertEquals(List.of("findAndModify", "update", "insert"), commands.names());
+
+        // find + full-document save before; now the conditional update plus the counters
+        commands.clear();
+        service.updateReportStatus(reportId, "CLOSED");
+        assertEquals(List.of("findAndModify", "update"), commands.names());
+    }
+
+    // Starts all tasks at the same moment and rethrows the first failure
+    private static void runConcurrently(List<Callable<Object>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Object>> results = new ArrayList<>();
+            for (Callable<Object> task : tasks) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Object> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // A status the report passed through stays in the counters document with 0
+    private static Map<String, Long> nonZero(Map<String, Long> byStatus) {
+        return byStatus.entrySet().stream()
+                .filter(entry -> entry.getValue() != 0)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    // Names of the commands sent to the server, without the driver's own housekeeping
+    private static class RecordedCommands implements CommandListener {
+
+        private static final Set<String> IGNORED = Set.of("hello", "isMaster", "ismaster", "ping", "endSessions",
+                "buildInfo", "buildinfo");
+
+        private final List<String> names = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            if (!IGNORED.contains(event.getCommandName())) {
+                names.add(event.getCommandName());
+            }
+        }
+
+        void clear() {
+            names.clear();
+        }
+
+        List<String> names() {
+            return List.copyOf(names);
+        }
+    }
+}
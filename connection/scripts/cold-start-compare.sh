@@ -0,0 +1,58 @@
+#!/usr/bin/env bash
+# Compares the shaded jar size and Lambda init duration of the current tree against another git ref
+# (e.g. the commit before the Spring Data removal).
+#
+# Each build is deployed to the given function in turn; every round updates an environment variable
+# to force a fresh sandbox and invokes it once with a $disconnect event for an unknown connection
+# (harmless). The init duration is taken from the REPORT line of the invocation log.
+#
+# usage: scripts/cold-start-compare.sh <function-name> <baseline-ref> [rounds]
+set -euo pipefail
+
+FUNCTION=${1:?usage: $0 <function-name> <baseline-ref> [rounds]}
+BASELINE_REF=${2:?usage: $0 <function-name> <baseline-ref> [rounds]}
+ROUNDS=${3:-5}
+
+MODULE_DIR=$(cd "$(dirname "$0")/.." && pwd)
+REPO_ROOT=$(git -C "$MODULE_DIR" rev-parse --show-toplevel)
+MODULE_PATH=${MODULE_DIR#"$REPO_ROOT"/}
+WORK=$(mktemp -d)
+trap 'git -C "$REPO_ROOT" worktree remove --force "$WORK/baseline" > /dev/null 2>&1 || true; rm -rf "$WORK"' EXIT
+
+EVENT='{"requestContext":{"connectionId":"cold-start-compare","routeKey":"$disconnect"}}'
+
+build() { # <module dir> <output jar>
+  (cd "$1" && mvn -q -B -DskipTests package)
+  cp "$(ls "$1"/target/*.jar | grep -v original | head -1)" "$2"
+}
+
+measure() { # <label> <jar>
+  local label=$1 jar=$2 inits=()
+  aws lambda update-function-code --function-name "$FUNCTION" --zip-file "fileb://$jar" > /dev/null
+  aws lambda wait function-updated-v2 --function-name "$FUNCTION"
+
+  for round in $(seq 1 "$ROUNDS"); do
+    VARS=$(aws lambda get-function-configuration --function-name "$FUNCTION" \
+      --query 'Environment.Variables' --output json | python3 -c \
+      "import json,sys; v=json.load(sys.stdin) or {}; v['COLD_START_ROUND']='${label}-${round}-$(date +%s)'; print(json.dumps({'Variables': v}))")
+    aws lambda update-function-configuration --function-name "$FUNCTION" --environment "$VARS" > /dev/null
+    aws lambda wait function-updated-v2 --function-name "$FUNCTION"
+
+    INIT=$(aws lambda invoke --function-name "$FUNCTION" --log-type Tail \
+      --cli-binary-format raw-in-base64-out --payload "$EVENT" /dev/null \
+      --query LogResult --output text | base64 --decode | sed -n 's/.*Init Duration: \([0-9.]*\) ms.*/\1/p')
+    inits+=("${INIT:-n/a}")
+  done
+
+  printf '%-10s jar=%6s KB  init_ms=%s\n' "$label" "$(( $(stat -c %s "$jar") / 1024 ))" "${inits[*]}"
+}
+
+echo "building current tree"
+build "$MODULE_DIR" "$WORK/current.jar"
+
+echo "building $BASELINE_REF"
+git -C "$REPO_ROOT" worktree add --detach "$WORK/baseline" "$BASELINE_REF" > /dev/null
+build "$WORK/baseline/$MODULE_PATH" "$WORK/baseline.jar"
+
+measure baseline "$WORK/baseline.jar"
+measure current "$WORK/current.jar"
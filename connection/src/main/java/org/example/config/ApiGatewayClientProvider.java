@@ -0,0 +1,35 @@
+package org.example.config;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.services.apigatewaymanagementapi.AmazonApiGatewayManagementApi;
+import com.amazonaws.services.apigatewaymanagementapi.AmazonApiGatewayManagementApiClientBuilder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ApiGatewayClientProvider {
+
+    // One client per callback endpoint (domain + stage), kept for the lifetime of the container
+    private static final Map<String, AmazonApiGatewayManagementApi> clients = new ConcurrentHashMap<>();
+
+    private static final String REGION = System.getenv().getOrDefault("AWS_REGION", "eu-central-1");
+
+    // Enough pooled connections for a full concurrent fan-out, see ConnectionBroadcaster
+    private static final ClientConfiguration CLIENT_CONFIGURATION = new ClientConfiguration()
+            .withMaxConnections(ConnectionSettings.POST_PARALLELISM)
+            .withConnectionTimeout(2_000)
+            .withRequestTimeout(5_000);
+
+    public static AmazonApiGatewayManagementApi getClient(String endpoint) {
+        return clients.computeIfAbsent(endpoint, ApiGatewayClientProvider::createClient);
+    }
+
+    private static AmazonApiGatewayManagementApi createClient(String endpoint) {
+        System.out.println("ApiGatewayClientProvider_1: Creating management API client for " + endpoint);
+        return AmazonApiGatewayManagementApiClientBuilder.standard()
+                .withEndpointConfiguration(
+                        new AmazonApiGatewayManagementApiClientBuilder.EndpointConfiguration(endpoint, REGION))
+                .withClientConfiguration(CLIENT_CONFIGURATION)
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.config;
+
+// Read from environment variables; a system property of the same name is used where the variable
+// is not set (tests, local runs)
+public final class ConnectionSettings {
+
+    public static final String MONGO_URI = setting("MONGO_URI");
+
+    // Upper bound on concurrent postToConnection calls per container
+    public static final int POST_PARALLELISM = intEnv("POST_PARALLELISM", 16);
+
+    // Callback URL of the WebSocket stage (https://{api}.execute-api.{region}.amazonaws.com/{stage}),
+    // for functions that post to connections without being invoked through the WebSocket API
+    public static final String WEBSOCKET_ENDPOINT = setting("WEBSOCKET_ENDPOINT");
+
+    // Issuer of the admins' Cognito tokens (https://cognito-idp.{region}.amazonaws.com/{userPoolId}), the
+    // backend's spring.security.oauth2.resourceserver.jwt.issuer-uri; admin sockets are refused while unset
+    public static final String COGNITO_ISSUER = setting("COGNITO_ISSUER");
+
+    // Base64 master key shared with the backend (its app.crypto.master-key), as a value or a file.
+    // Handlers that store or read message text fail without one unless ALLOW_PLAINTEXT is true
+    public static final String MASTER_KEY = setting("MASTER_KEY");
+    public static final String MASTER_KEY_FILE = setting("MASTER_KEY_FILE");
+
+    // Only for local runs: stores message text unencrypted while no master key is set
+    public static final boolean ALLOW_PLAINTEXT = Boolean.parseBoolean(setting("ALLOW_PLAINTEXT"));
+
+    // How long unwrapped data keys are cached, and after how many encryptions a tenant key is rotated
+    public static final int DATA_KEY_TTL_SECONDS = intEnv("DATA_KEY_TTL_SECONDS", 600);
+    public static final int DATA_KEY_MAX_USES = intEnv("DATA_KEY_MAX_USES", 1_000_000);
+
+    // Bucket of the presigned attachment uploads (the backend's aws.bucket.name) and their size limit
+    // (app.s3.max-upload-mb); messages with attachments are rejected while no bucket is set
+    public static final String ATTACHMENT_BUCKET = setting("ATTACHMENT_BUCKET");
+    public static final int MAX_UPLOAD_MB = intEnv("MAX_UPLOAD_MB", 25);
+
+    // CloudWatch namespace of the per-invocation EMF metrics
+    public static final String METRICS_NAMESPACE = envOrDefault("METRICS_NAMESPACE", "WhistleblowerWebSocket");
+
+    // Share of invocations that log details of their payload (0..1), never message text or credentials
+    public static final double LOG_SAMPLE_RATE = doubleEnv("LOG_SAMPLE_RATE", 0.01);
+
+    private ConnectionSettings() {
+    }
+
+    private static String setting(String name) {
+        String value = System.getenv(name);
+        return value != null ? value : System.getProperty(name);
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = setting(name);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    private static double doubleEnv(String name, double defaultValue) {
+        String value = setting(name);
+        return value == null || value.isBlank() ? defaultValue : Double.parseDouble(value.trim());
+    }
+
+    private static int intEnv(String name, int defaultValue) {
+        String value = setting(name);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+}
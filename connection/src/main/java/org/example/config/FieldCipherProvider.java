@@ -0,0 +1,45 @@
+package org.example.config;
+
+import org.example.crypto.DataKeyService;
+import org.example.crypto.FieldCipher;
+import org.example.crypto.MasterKeyProvider;
+import org.example.crypto.StaticMasterKeyProvider;
+
+import java.nio.file.Path;
+
+public class FieldCipherProvider {
+
+    // One per container, so unwrapped data keys stay cached across warm invocations
+    private static final FieldCipher cipher = createCipher();
+
+    public static FieldCipher getCipher() {
+        return cipher;
+    }
+
+    private static FieldCipher createCipher() {
+        MasterKeyProvider masterKey = masterKey();
+        if (masterKey == null) {
+            System.out.println("FieldCipherProvider: ALLOW_PLAINTEXT is set and there is no master key, messages are stored unencrypted");
+            return new FieldCipher(null);
+        }
+        return new FieldCipher(new DataKeyService(
+                masterKey,
+                ConnectionSettings.DATA_KEY_TTL_SECONDS * 1000L,
+                ConnectionSettings.DATA_KEY_MAX_USES));
+    }
+
+    private static MasterKeyProvider masterKey() {
+        if (ConnectionSettings.MASTER_KEY != null && !ConnectionSettings.MASTER_KEY.isBlank()) {
+            return StaticMasterKeyProvider.fromBase64(ConnectionSettings.MASTER_KEY);
+        }
+        String keyFile = ConnectionSettings.MASTER_KEY_FILE;
+        if (keyFile != null && !keyFile.isBlank()) {
+            return StaticMasterKeyProvider.fromFile(Path.of(keyFile));
+        }
+        if (ConnectionSettings.ALLOW_PLAINTEXT) {
+            return null;
+        }
+        throw new IllegalStateException("No master key: set MASTER_KEY or MASTER_KEY_FILE,"
+                + " or ALLOW_PLAINTEXT=true to store messages unencrypted");
+    }
+}
@@ -1,25 +1,59 @@
 package org.example.config;
 
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
-import org.springframework.data.mongodb.core.MongoTemplate;
+import com.mongodb.client.MongoDatabase;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.codecs.pojo.PojoCodecProvider;
+import org.example.metrics.MongoTimingListener;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.bson.codecs.configuration.CodecRegistries.fromProviders;
+import static org.bson.codecs.configuration.CodecRegistries.fromRegistries;
 
 public class MongoClientProvider {
 
-    private static MongoTemplate mongoTemplate;
+    private static final String DATABASE = "whistleblower";
+
+    // Default codecs (incl. java.time) plus automatic POJO mapping for the model classes
+    private static final CodecRegistry CODECS = fromRegistries(
+            MongoClientSettings.getDefaultCodecRegistry(),
+            fromProviders(PojoCodecProvider.builder().automatic(true).build()));
+
+    // Created while the container initializes, so the TLS handshake and server discovery
+    // happen in the init phase instead of the first invocation
+    private static final MongoClient client = createClient();
 
-    public static MongoTemplate getMongoTemplate() {
-        System.out.println("MongoClientProvider_1: Creating new Mongo Client...");
-        if (mongoTemplate == null) {
-            String connectionString = System.getenv("MONGO_URI");
-            System.out.println("MongoClientProvider_3: Using connection string: "
-                    + (connectionString.contains("@") ? "Confidential" : connectionString));
+    private static final MongoDatabase database = client.getDatabase(DATABASE).withCodecRegistry(CODECS);
 
-            MongoClient client = MongoClients.create(connectionString);
-            mongoTemplate = new MongoTemplate(client, "whistleblower");
-            System.out.println("MongoClientProvider_4: Mongo Template created successfully");
+    public static MongoDatabase getDatabase() {
+        return database;
+    }
+
+    private static MongoClient createClient() {
+        String connectionString = ConnectionSettings.MONGO_URI;
+        if (connectionString == null || connectionString.isBlank()) {
+            throw new IllegalStateException("MONGO_URI is not set");
         }
-        System.out.println("MongoClientProvider_5: Returning Mongo Template" + mongoTemplate);
-        return mongoTemplate;
+
+        MongoClientSettings settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(connectionString))
+                .addCommandListener(new MongoTimingListener())
+                // A container serves one invocation at a time: a couple of connections are enough,
+                // and they are kept across warm invocations instead of being re-established
+                .applyToConnectionPoolSettings(pool -> pool
+                        .minSize(1)
+                        .maxSize(4)
+                        .maxConnectionIdleTime(10, TimeUnit.MINUTES))
+                // Fail fast instead of running into the function timeout
+                .applyToClusterSettings(cluster -> cluster
+                        .serverSelectionTimeout(5, TimeUnit.SECONDS))
+                .applyToSocketSettings(socket -> socket
+                        .connectTimeout(5, TimeUnit.SECONDS))
+                .build();
+        return MongoClients.create(settings);
     }
 }
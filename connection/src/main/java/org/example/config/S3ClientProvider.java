@@ -0,0 +1,26 @@
+package org.example.config;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+
+public class S3ClientProvider {
+
+    private static final String REGION = System.getenv().getOrDefault("AWS_REGION", "eu-central-1");
+
+    private static AmazonS3 client;
+
+    // Created on first use and kept for the lifetime of the container
+    public static synchronized AmazonS3 getClient() {
+        if (client == null) {
+            System.out.println("S3ClientProvider_1: Creating S3 client");
+            client = AmazonS3ClientBuilder.standard()
+                    .withRegion(REGION)
+                    .withClientConfiguration(new ClientConfiguration()
+                            .withConnectionTimeout(2_000)
+                            .withRequestTimeout(5_000))
+                    .build();
+        }
+        return client;
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.crypto;
+
+import javax.crypto.SecretKey;
+
+// An unwrapped tenant data key and the id it is stored under in tenant_data_keys
+public record DataKey(String keyId, SecretKey key) {
+}
@@ -0,0 +1,167 @@
+package org.example.crypto;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.example.config.MongoClientProvider;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.gt;
+import static com.mongodb.client.model.Filters.not;
+import static com.mongodb.client.model.Updates.inc;
+
+/**
+ * Tenant data keys from the backend's tenant_data_keys, mirroring its DataKeyService: unwrapped
+ * keys are cached for a bounded time, and encryption uses are reserved in blocks on the stored key
+ * (reservedUses), so a key encrypts at most maxUses values across all processes before a fresh one
+ * is generated. The Mongo I/O of a renewal runs outside any lock.
+ */
+public class DataKeyService {
+
+    private static final MongoCollection<Document> collection = MongoClientProvider.getDatabase()
+            .getCollection("tenant_data_keys");
+
+    // Uses reserved at a time, same split as the backend
+    private static final long BLOCKS_PER_KEY = 100;
+
+    private final MasterKeyProvider masterKey;
+    private final long ttlNanos;
+    private final long maxUses;
+    private final long blockSize;
+
+    private final Map<String, Lease> encryptionKeys = new ConcurrentHashMap<>(); // tenantId -> lease
+    private final Map<String, Lease> decryptionKeys = new ConcurrentHashMap<>(); // keyId -> lease
+    private final Map<String, CompletableFuture<Lease>> renewals = new ConcurrentHashMap<>();
+
+    public DataKeyService(MasterKeyProvider masterKey, long ttlMillis, long maxUses) {
+        this.masterKey = masterKey;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.maxUses = maxUses;
+        this.blockSize = Math.max(1, maxUses / BLOCKS_PER_KEY);
+    }
+
+    public DataKey forEncryption(String tenantId) {
+        Lease lease = encryptionKeys.get(tenantId);
+        while (lease == null || lease.expired() || !lease.tryUse()) {
+            lease = renew(tenantId, lease);
+        }
+        return lease.key;
+    }
+
+    // One thread per tenant loads the next lease, the others wait for it
+    private Lease renew(String tenantId, Lease used) {
+        CompletableFuture<Lease> renewal = new CompletableFuture<>();
+        CompletableFuture<Lease> running = renewals.putIfAbsent(tenantId, renewal);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            Lease current = encryptionKeys.get(tenantId);
+            Lease renewed = current != null && current != used && !current.expired() ? current : newLease(tenantId, used);
+            encryptionKeys.put(tenantId, renewed);
+            decryptionKeys.put(renewed.key.keyId(), new Lease(renewed.key, 0));
+            renewal.complete(renewed);
+            return renewed;
+        } catch (RuntimeException e) {
+            renewal.completeExceptionally(e);
+            throw e;
+        } finally {
+            renewals.remove(tenantId, renewal);
+        }
+    }
+
+    private Lease newLease(String tenantId, Lease used) {
+        if (used != null && !used.expired()) {
+            // block used up: the next one of the same key, if it has any left
+            return new Lease(reserveUses(used.key.keyId()) ? used.key : create(tenantId), blockSize);
+        }
+        Document newest = collection.find(eq("tenantId", tenantId))
+                .sort(Sorts.descending("createdAt"))
+                .first();
+        if (newest != null && reserveUses(newest.getString("_id"))) {
+            return new Lease(unwrap(newest), blockSize);
+        }
+        return new Lease(create(tenantId), blockSize);
+    }
+
+    // "not greater" also matches keys stored before uses were counted
+    private boolean reserveUses(String keyId) {
+        return collection.updateOne(
+                and(eq("_id", keyId), not(gt("reservedUses", maxUses - blockSize))),
+                inc("reservedUses", blockSize)).getModifiedCount() == 1;
+    }
+
+    public SecretKey forDecryption(String keyId) {
+        Lease lease = decryptionKeys.get(keyId);
+        if (lease == null || lease.expired()) {
+            Document stored = collection.find(eq("_id", keyId)).first();
+            if (stored == null) {
+                throw new IllegalStateException("Unknown data key " + keyId);
+            }
+            lease = new Lease(unwrap(stored), 0);
+            decryptionKeys.put(keyId, lease);
+        }
+        return lease.key.key();
+    }
+
+    private DataKey create(String tenantId) {
+        SecretKey key = AesGcm.newKey();
+        String keyId = UUID.randomUUID().toString();
+        collection.insertOne(new Document("_id", keyId)
+                .append("tenantId", tenantId)
+                .append("wrappedKey", new Binary(masterKey.wrap(key.getEncoded())))
+                .append("masterKeyId", masterKey.keyId())
+                .append("createdAt", Date.from(Instant.now()))
+                .append("reservedUses", blockSize)); // the first block is this process's
+        System.out.println("DataKeyService_1: Created data key " + keyId + " for tenant " + tenantId);
+        return new DataKey(keyId, key);
+    }
+
+    private DataKey unwrap(Document stored) {
+        String keyId = stored.getString("_id");
+        if (!masterKey.keyId().equals(stored.getString("masterKeyId"))) {
+            throw new IllegalStateException("Data key " + keyId + " was wrapped with master key "
+                    + stored.getString("masterKeyId") + ", configured is " + masterKey.keyId());
+        }
+        byte[] raw = masterKey.unwrap(stored.get("wrappedKey", Binary.class).getData());
+        return new DataKey(keyId, new SecretKeySpec(raw, AesGcm.ALGORITHM));
+    }
+
+    private final class Lease {
+
+        private final DataKey key;
+        private final long reserved;
+        private final long expiresAt = System.nanoTime() + ttlNanos;
+        private final AtomicLong uses = new AtomicLong();
+
+        private Lease(DataKey key, long reserved) {
+            this.key = key;
+            this.reserved = reserved;
+        }
+
+        private boolean expired() {
+            return expiresAt - System.nanoTime() <= 0;
+        }
+
+        private boolean tryUse() {
+            return uses.incrementAndGet() <= reserved;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.crypto;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Same value format as the backend's FieldCipher: {@code enc:v1:<keyId>:<base64(IV || ciphertext || tag)>},
+ * keyId as AAD, values without the prefix pass through unchanged. Without a DataKeyService
+ * (no master key and ALLOW_PLAINTEXT set) new values are stored in plaintext.
+ */
+public class FieldCipher {
+
+    private static final String PREFIX = "enc:v1:";
+
+    private final DataKeyService keys;
+
+    public FieldCipher(DataKeyService keys) {
+        this.keys = keys;
+    }
+
+    public String encrypt(String tenantId, String plaintext) {
+        if (keys == null || tenantId == null || plaintext == null || plaintext.startsWith(PREFIX)) {
+            return plaintext;
+        }
+        DataKey key = keys.forEncryption(tenantId);
+        byte[] sealed = AesGcm.encrypt(key.key(), plaintext.getBytes(StandardCharsets.UTF_8), aad(key.keyId()));
+        return PREFIX + key.keyId() + ":" + Base64.getEncoder().encodeToString(sealed);
+    }
+
+    public String decrypt(String value) {
+        if (value == null || !value.startsWith(PREFIX)) {
+            return value;
+        }
+        if (keys == null) {
+            throw new IllegalStateException("Encrypted value found but no master key is configured");
+        }
+        int separator = value.indexOf(':', PREFIX.length());
+        if (separator < 0) {
+            throw new IllegalStateException("Malformed encrypted value");
+        }
+        String keyId = value.substring(PREFIX.length(), separator);
+        SecretKey key = keys.forDecryption(keyId);
+        byte[] sealed = Base64.getDecoder().decode(value.substring(separator + 1));
+        return new String(AesGcm.decrypt(key, sealed, aad(keyId)), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] aad(String keyId) {
+        return keyId.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.crypto;
+
+/**
+ * Wraps and unwraps tenant data keys, same contract as the backend's MasterKeyProvider; both
+ * modules have to use the same master key to read each other's messages.
+ */
+public interface MasterKeyProvider {
+
+    // Identifies the master key a data key was wrapped with, stored next to the wrapped key
+    String keyId();
+
+    byte[] wrap(byte[] dataKey);
+
+    byte[] unwrap(byte[] wrappedKey);
+}
@@ -0,0 +1,266 @@
+package org.example.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonValue;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.conversions.Bson;
+import org.example.config.ConnectionSettings;
+import org.example.config.MongoClientProvider;
+import org.example.metrics.InvocationMetrics;
+import org.example.model.ConversationMessage;
+import org.example.model.WebSocketConnection;
+import org.example.repository.ChangeStreamStateRepository;
+import org.example.repository.ConversationMessageRepository;
+import org.example.repository.ReportRepository;
+import org.example.repository.WebSocketConnectionRepository;
+import org.example.service.ConnectionBroadcaster;
+import org.example.service.MessageFrames;
+import org.example.service.MessageService;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.exists;
+import static com.mongodb.client.model.Filters.ne;
+import static com.mongodb.client.model.Filters.or;
+
+/**
+ * Pushes writes that did not go through the WebSocket API (replies sent over REST, status changes
+ * made by an admin) to the sockets subscribed to the report. Runs on a schedule and tails a change
+ * stream on conversation_messages and whistleblower_reports until shortly before it times out.
+ * Events are pushed in batches, one frame per report, and the resume token is stored after each
+ * batch so the next run continues where this one stopped.
+ */
+public class ChangeStreamHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+
+        private static final String CONSUMER = "websocket-push";
+
+        private static final String MESSAGES = "conversation_messages";
+
+        private static final String REPORTS = "whistleblower_reports";
+
+        // Messages stored by SendMessageHandler were broadcast when they were stored; messageSeq
+        // bumps and other report updates are not interesting to clients
+        private static final List<Bson> PIPELINE = List.of(Aggregates.match(or(
+                        and(eq("ns.coll", MESSAGES), eq("operationType", "insert"),
+                                        ne("fullDocument.source", MessageService.SOURCE)),
+                        and(eq("ns.coll", REPORTS), eq("operationType", "update"),
+                                        exists("updateDescription.updatedFields.status")))));
+
+        // Upper bound on the events pushed together
+        private static final int MAX_BATCH = 100;
+
+        // How long an empty getMore waits for new events, also the longest an event waits for its batch
+        private static final long MAX_AWAIT_MS = 1000;
+
+        // Stop tailing this long before the function times out
+        private static final long STOP_BEFORE_TIMEOUT_MS = 5000;
+
+        // The stored resume token is older than the oplog, the events in between are lost
+        private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+        private final WebSocketConnectionRepository repository = new WebSocketConnectionRepository();
+
+        private final ConnectionBroadcaster broadcaster = new ConnectionBroadcaster(repository);
+
+        private final ReportRepository reportRepository = new ReportRepository();
+
+        private final ChangeStreamStateRepository stateRepository = new ChangeStreamStateRepository();
+
+        private final ConversationMessageRepository messageRepository = new ConversationMessageRepository();
+
+        private final Codec<ConversationMessage> messageCodec = MongoClientProvider.getDatabase()
+                        .getCodecRegistry().get(ConversationMessage.class);
+
+        private final ObjectMapper mapper = new ObjectMapper();
+
+        @Override
+        public Map<String, Object> handleRequest(Map<String, Object> event, Context context) {
+                InvocationMetrics metrics = InvocationMetrics.start("ChangeStreamHandler", context);
+                try {
+                        return tailAndPush(context);
+                } finally {
+                        metrics.emit();
+                }
+        }
+
+        private Map<String, Object> tailAndPush(Context context) {
+                System.out.println("ChangeStreamHandler_1: Received request");
+
+                String endpoint = ConnectionSettings.WEBSOCKET_ENDPOINT;
+                if (endpoint == null || endpoint.isBlank()) {
+                        System.err.println("ChangeStreamHandler: ERROR: WEBSOCKET_ENDPOINT is not set");
+                        return Map.of(
+                                        "statusCode", 500,
+                                        "error", "WEBSOCKET_ENDPOINT is not set");
+                }
+
+                try {
+                        int pushed = tail(endpoint, context);
+                        System.out.println("ChangeStreamHandler_4: Pushed " + pushed + " events");
+                        return Map.of("statusCode", 200);
+
+                } catch (MongoCommandException e) {
+                        if (e.getErrorCode() != CHANGE_STREAM_HISTORY_LOST) {
+                                throw e;
+                        }
+                        // Start over from now; clients that missed something catch up through replay or a reload
+                        System.err.println("ChangeStreamHandler: Resume token expired, starting from now");
+                        stateRepository.clear(CONSUMER);
+                        return Map.of("statusCode", 200);
+
+                } catch (Exception e) {
+                        System.err.println("ChangeStreamHandler: ERROR: " + e.getMessage());
+                        e.printStackTrace();
+                        return Map.of(
+                                        "statusCode", 500,
+                                        "error", e.getMessage());
+                }
+        }
+
+        private int tail(String endpoint, Context context) {
+                BsonDocument resumeToken = stateRepository.loadResumeToken(CONSUMER);
+                System.out.println("ChangeStreamHandler_2: " + (resumeToken == null
+                                ? "No resume token, starting from now"
+                                : "Resuming after " + resumeToken.toJson()));
+
+                ChangeStreamIterable<BsonDocument> stream = MongoClientProvider.getDatabase()
+                                .watch(PIPELINE, BsonDocument.class)
+                                .batchSize(MAX_BATCH)
+                                .maxAwaitTime(MAX_AWAIT_MS, TimeUnit.MILLISECONDS);
+                if (resumeToken != null) {
+                        stream = stream.startAfter(resumeToken);
+                }
+
+                int pushed = 0;
+                try (MongoChangeStreamCursor<ChangeStreamDocument<BsonDocument>> cursor = stream.cursor()) {
+                        while (context.getRemainingTimeInMillis() > STOP_BEFORE_TIMEOUT_MS) {
+                                List<ChangeStreamDocument<BsonDocument>> batch = new ArrayList<>();
+                                ChangeStreamDocument<BsonDocument> change;
+                                while (batch.size() < MAX_BATCH && (change = cursor.tryNext()) != null) {
+                                        batch.add(change);
+                                }
+                                if (batch.isEmpty()) {
+                                        continue;
+                                }
+
+                                pushed += push(endpoint, batch);
+                                resumeToken = cursor.getResumeToken();
+                                stateRepository.saveResumeToken(CONSUMER, resumeToken);
+                        }
+
+                        // The post-batch token also moves past events the pipeline filtered out
+                        BsonDocument latest = cursor.getResumeToken();
+                        if (latest != null && !latest.equals(resumeToken)) {
+                                stateRepository.saveResumeToken(CONSUMER, latest);
+                        }
+                }
+                return pushed;
+        }
+
+        // One frame per report: the event itself, or a batch frame when the report had several.
+        // Events that cannot be turned into a frame and reports whose push fails are logged and
+        // skipped, so one bad event never keeps the resume token from moving past its batch.
+        private int push(String endpoint, List<ChangeStreamDocument<BsonDocument>> batch) {
+                Map<BsonValue, String> reportIds = reportIdsOfStatusChanges(batch);
+
+                Map<String, List<Map<String, Object>>> framesByReport = new LinkedHashMap<>();
+                for (ChangeStreamDocument<BsonDocument> change : batch) {
+                        Map<String, Object> frame;
+                        try {
+                                frame = toFrame(change, reportIds);
+                        } catch (Exception e) {
+                                skipped("event " + change.getDocumentKey().toJson(), 1, e);
+                                continue;
+                        }
+                        if (frame != null) {
+                                framesByReport.computeIfAbsent((String) frame.get("reportId"), id -> new ArrayList<>())
+                                                .add(frame);
+                        }
+                }
+
+                int pushed = 0;
+                for (Map.Entry<String, List<Map<String, Object>>> entry : framesByReport.entrySet()) {
+                        List<Map<String, Object>> frames = entry.getValue();
+                        try {
+                                List<WebSocketConnection> connections = repository.findByReportId(entry.getKey());
+                                if (connections.isEmpty()) {
+                                        continue;
+                                }
+                                Map<String, Object> frame = frames.size() == 1
+                                                ? frames.get(0)
+                                                : MessageFrames.batch(entry.getKey(), frames);
+                                int delivered = broadcaster.broadcast(endpoint, connections, mapper.writeValueAsString(frame));
+                                System.out.println("ChangeStreamHandler_3: " + frames.size() + " events of report "
+                                                + entry.getKey() + " delivered to " + delivered + " of "
+                                                + connections.size() + " connections");
+                                pushed += frames.size();
+                        } catch (Exception e) {
+                                skipped("report " + entry.getKey(), frames.size(), e);
+                        }
+                }
+                return pushed;
+        }
+
+        // Clients whose push was skipped catch up through replay or a reload
+        private static void skipped(String what, int events, Exception e) {
+                System.err.println("ChangeStreamHandler: Skipping " + what + ": " + e);
+                e.printStackTrace();
+                InvocationMetrics.current().record("SkippedEvents", InvocationMetrics.Unit.COUNT, events);
+        }
+
+        // Update events carry only the _id of the report, resolved to reportIds with one query per batch
+        private Map<BsonValue, String> reportIdsOfStatusChanges(List<ChangeStreamDocument<BsonDocument>> batch) {
+                List<BsonValue> ids = batch.stream()
+                                .filter(change -> REPORTS.equals(change.getNamespace().getCollectionName()))
+                                .map(change -> change.getDocumentKey().get("_id"))
+                                .distinct()
+                                .toList();
+                if (ids.isEmpty()) {
+                        return Map.of();
+                }
+                try {
+                        return reportRepository.findReportIdsByIds(ids);
+                } catch (Exception e) {
+                        // the status changes are dropped, the messages of the batch still go out
+                        skipped("status changes of " + ids.size() + " reports", ids.size(), e);
+                        return Map.of();
+                }
+        }
+
+        private Map<String, Object> toFrame(ChangeStreamDocument<BsonDocument> change,
+                        Map<BsonValue, String> reportIds) {
+                if (MESSAGES.equals(change.getNamespace().getCollectionName())) {
+                        ConversationMessage message = messageCodec.decode(
+                                        new BsonDocumentReader(change.getFullDocument()),
+                                        DecoderContext.builder().build());
+                        return MessageFrames.message(messageRepository.decrypt(message));
+                }
+
+                String reportId = reportIds.get(change.getDocumentKey().get("_id"));
+                if (reportId == null) {
+                        return null; // deleted since
+                }
+                BsonDocument updated = change.getUpdateDescription().getUpdatedFields();
+                Instant updatedAt = updated.isDateTime("updatedAt")
+                                ? Instant.ofEpochMilli(updated.getDateTime("updatedAt").getValue())
+                                : null;
+                return MessageFrames.status(reportId, updated.getString("status").getValue(), updatedAt);
+        }
+}
@@ -0,0 +1,59 @@
+package org.example.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import org.example.metrics.InvocationMetrics;
+import org.example.service.ConnectAuthenticator;
+import org.example.service.ConnectAuthenticator.Subscriber;
+
+import java.util.List;
+import java.util.Map;
+
+// REQUEST authorizer of the $connect route. API Gateway refuses the handshake on Deny; on Allow the
+// context below reaches ConnectHandler as requestContext.authorizer, the only place it takes the
+// socket's reportId and userType from.
+public class ConnectAuthorizer implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+
+        private final ConnectAuthenticator authenticator = new ConnectAuthenticator();
+
+        @Override
+        public Map<String, Object> handleRequest(Map<String, Object> event, Context context) {
+                InvocationMetrics metrics = InvocationMetrics.start("ConnectAuthorizer", context);
+                try {
+                        return authorize(event, metrics);
+                } finally {
+                        metrics.emit();
+                }
+        }
+
+        private Map<String, Object> authorize(Map<String, Object> event, InvocationMetrics metrics) {
+                // The query string carries credentials, so neither the event nor the parameters are logged
+                Map<String, String> queryParams = (Map<String, String>) event.get("queryStringParameters");
+                String methodArn = (String) event.get("methodArn");
+
+                Subscriber subscriber = authenticator.authenticate(queryParams);
+                if (subscriber == null) {
+                        System.out.println("ConnectAuthorizer_1: Denied");
+                        return policy("anonymous", "Deny", methodArn, Map.of());
+                }
+                metrics.property("reportId", subscriber.reportId());
+                System.out.println("ConnectAuthorizer_1: Allowed ReportID: " + subscriber.reportId()
+                                + ", UserType: " + subscriber.userType());
+                return policy(subscriber.userType() + ":" + subscriber.reportId(), "Allow", methodArn, Map.of(
+                                "reportId", subscriber.reportId(),
+                                "userType", subscriber.userType()));
+        }
+
+        private static Map<String, Object> policy(String principalId, String effect, String resource,
+                        Map<String, String> context) {
+                return Map.of(
+                                "principalId", principalId,
+                                "policyDocument", Map.of(
+                                                "Version", "2012-10-17",
+                                                "Statement", List.of(Map.of(
+                                                                "Action", "execute-api:Invoke",
+                                                                "Effect", effect,
+                                                                "Resource", resource))),
+                                "context", context);
+        }
+}
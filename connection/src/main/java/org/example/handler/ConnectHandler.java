@@ -2,10 +2,9 @@ package org.example.handler;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
-import org.example.model.WebSocketConnection;
+import org.example.metrics.InvocationMetrics;
 import org.example.repository.WebSocketConnectionRepository;
 
-import java.time.Instant;
 import java.util.Map;
 
 public class ConnectHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
@@ -14,8 +13,16 @@ public class ConnectHandler implements RequestHandler<Map<String, Object>, Map<S
 
         @Override
         public Map<String, Object> handleRequest(Map<String, Object> event, Context context) {
+                InvocationMetrics metrics = InvocationMetrics.start("ConnectHandler", context);
+                try {
+                        return connect(event, metrics);
+                } finally {
+                        metrics.emit();
+                }
+        }
+
+        private Map<String, Object> connect(Map<String, Object> event, InvocationMetrics metrics) {
                 System.out.println("ConnectHandler_1: Received request");
-                System.out.println("ConnectHandler_2: Event: " + event);
 
                 Map<String, Object> requestContext = (Map<String, Object>) event.get("requestContext");
                 System.out.println("ConnectHandler_3: Parsed requestContext");
@@ -23,23 +30,45 @@ public class ConnectHandler implements RequestHandler<Map<String, Object>, Map<S
                 String connectionId = (String) requestContext.get("connectionId");
                 System.out.println("ConnectHandler_4: Extracted connectionId: " + connectionId);
 
-                Map<String, String> queryParams = (Map<String, String>) event.get("queryStringParameters");
-                System.out.println("ConnectHandler_5: Extracted queryParams: " + queryParams);
-
-                String reportId = queryParams.get("reportId");
-                String userType = queryParams.get("userType");
+                // Who the socket is comes from ConnectAuthorizer, never from the query string, which
+                // also carries the credentials and is therefore not logged
+                Map<String, Object> authorizer = (Map<String, Object>) requestContext.get("authorizer");
+                String reportId = authorizer == null ? null : (String) authorizer.get("reportId");
+                String userType = authorizer == null ? null : (String) authorizer.get("userType");
+                if (reportId == null || userType == null) {
+                        System.out.println("ConnectHandler_5: No authorizer context, refusing connection");
+                        return Map.of("statusCode", 401);
+                }
+                metrics.property("reportId", reportId);
                 System.out.println("ConnectHandler_6: Saving connection for ReportID: " + reportId + ", UserType: "
                                 + userType);
 
-                repository.save(WebSocketConnection.builder()
-                                .connectionId(connectionId)
-                                .reportId(reportId)
-                                .userType(userType)
-                                .connectedAt(Instant.now())
-                                .build());
+                Map<String, String> queryParams = (Map<String, String>) event.get("queryStringParameters");
+                if (queryParams == null) {
+                        queryParams = Map.of();
+                }
+
+                // Reconnecting clients pass what they already have; nothing can be pushed before
+                // $connect returns, so the cursor is kept for the "replay" route they call once open
+                Long lastSeq = parseSeq(queryParams.get("lastSeq"));
+                String lastSeenMessageId = queryParams.get("lastSeenMessageId");
+
+                repository.upsert(connectionId, reportId, userType, lastSeq, lastSeenMessageId);
                 System.out.println("ConnectHandler_7: Saved connection to DB successfully");
 
                 System.out.println("ConnectHandler_8: Returning 200 OK");
                 return Map.of("statusCode", 200);
         }
+
+        private static Long parseSeq(String value) {
+                if (value == null || value.isBlank()) {
+                        return null;
+                }
+                try {
+                        return Long.parseLong(value.trim());
+                } catch (NumberFormatException e) {
+                        System.out.println("ConnectHandler: Ignoring invalid lastSeq: " + value);
+                        return null;
+                }
+        }
 }
@@ -2,6 +2,7 @@ package org.example.handler;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import org.example.metrics.InvocationMetrics;
 import org.example.repository.WebSocketConnectionRepository;
 
 import java.util.Map;
@@ -12,16 +13,21 @@ public class DisconnectHandler implements RequestHandler<Map<String, Object>, Ma
 
     @Override
     public Map<String, Object> handleRequest(Map<String, Object> event, Context context) {
-        System.out.println("DisconnectHandler_1: Received request");
+        InvocationMetrics metrics = InvocationMetrics.start("DisconnectHandler", context);
+        try {
+            System.out.println("DisconnectHandler_1: Received request");
 
-        Map<String, Object> requestContext = (Map<String, Object>) event.get("requestContext");
+            Map<String, Object> requestContext = (Map<String, Object>) event.get("requestContext");
 
-        String connectionId = (String) requestContext.get("connectionId");
-        System.out.println("DisconnectHandler_2: Extracted connectionId to delete: " + connectionId);
+            String connectionId = (String) requestContext.get("connectionId");
+            System.out.println("DisconnectHandler_2: Extracted connectionId to delete: " + connectionId);
 
-        repository.deleteByConnectionId(connectionId);
-        System.out.println("DisconnectHandler_3: Deleted connection from DB");
+            repository.deleteByConnectionId(connectionId);
+            System.out.println("DisconnectHandler_3: Deleted connection from DB");
 
-        return Map.of("statusCode", 200);
+            return Map.of("statusCode", 200);
+        } finally {
+            metrics.emit();
+        }
     }
 }
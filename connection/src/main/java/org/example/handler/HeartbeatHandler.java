@@ -0,0 +1,56 @@
+package org.example.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.metrics.InvocationMetrics;
+import org.example.model.WebSocketConnection;
+import org.example.repository.WebSocketConnectionRepository;
+import org.example.service.ConnectionBroadcaster;
+import org.example.service.MessageFrames;
+
+import java.util.List;
+import java.util.Map;
+
+// Keeps a connection's row alive: clients send {"action":"heartbeat"} while the socket is open
+public class HeartbeatHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+
+    private final WebSocketConnectionRepository repository = new WebSocketConnectionRepository();
+
+    private final ConnectionBroadcaster broadcaster = new ConnectionBroadcaster(repository);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Override
+    public Map<String, Object> handleRequest(Map<String, Object> event, Context context) {
+        InvocationMetrics metrics = InvocationMetrics.start("HeartbeatHandler", context);
+        try {
+            Map<String, Object> requestContext = (Map<String, Object>) event.get("requestContext");
+
+            String connectionId = (String) requestContext.get("connectionId");
+
+            WebSocketConnection connection = repository.touch(connectionId);
+            if (connection == null) {
+                // The row expired while the socket stayed open (e.g. a suspended tab). Only $connect
+                // may register a connection, the heartbeat payload is whatever the client claims
+                System.out.println("HeartbeatHandler_1: Unknown connection, asking it to reconnect: " + connectionId);
+                String endpoint = "https://" + requestContext.get("domainName") + "/" + requestContext.get("stage");
+                broadcaster.broadcast(endpoint,
+                        List.of(WebSocketConnection.builder().connectionId(connectionId).build()),
+                        mapper.writeValueAsString(MessageFrames.reconnect()));
+                return Map.of("statusCode", 410);
+            }
+
+            return Map.of("statusCode", 200);
+
+        } catch (Exception e) {
+            System.err.println("HeartbeatHandler: ERROR: " + e.getMessage());
+            e.printStackTrace();
+            return Map.of(
+                    "statusCode", 500,
+                    "error", e.getMessage());
+        } finally {
+            metrics.emit();
+        }
+    }
+}
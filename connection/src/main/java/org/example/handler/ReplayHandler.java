@@ -0,0 +1,90 @@
+package org.example.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.metrics.InvocationMetrics;
+import org.example.model.ConversationMessage;
+import org.example.model.WebSocketConnection;
+import org.example.repository.WebSocketConnectionRepository;
+import org.example.service.ConnectionBroadcaster;
+import org.example.service.MessageFrames;
+import org.example.service.ReplayService;
+
+import java.util.List;
+import java.util.Map;
+
+// {"action": "replay"}, sent by a client right after it reconnected with lastSeq / lastSeenMessageId
+public class ReplayHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+
+        // Messages per replay frame
+        private static final int FRAME_SIZE = 25;
+
+        private final WebSocketConnectionRepository repository = new WebSocketConnectionRepository();
+
+        private final ConnectionBroadcaster broadcaster = new ConnectionBroadcaster(repository);
+
+        private final ReplayService replayService = new ReplayService();
+
+        private final ObjectMapper mapper = new ObjectMapper();
+
+        @Override
+        public Map<String, Object> handleRequest(Map<String, Object> event, Context context) {
+                InvocationMetrics metrics = InvocationMetrics.start("ReplayHandler", context);
+                System.out.println("ReplayHandler_1: Received request");
+
+                try {
+                        Map<String, Object> requestContext = (Map<String, Object>) event.get("requestContext");
+
+                        String endpoint = "https://"
+                                        + requestContext.get("domainName")
+                                        + "/"
+                                        + requestContext.get("stage");
+                        String connectionId = (String) requestContext.get("connectionId");
+
+                        WebSocketConnection connection = repository.takeReplayCursor(connectionId);
+                        if (connection == null) {
+                                System.out.println("ReplayHandler_2: Unknown connection: " + connectionId);
+                                return Map.of("statusCode", 404);
+                        }
+                        if (connection.getLastSeq() == null && connection.getLastSeenMessageId() == null) {
+                                System.out.println("ReplayHandler_2: No replay cursor for " + connectionId);
+                                return Map.of("statusCode", 200);
+                        }
+
+                        ReplayService.Replay missed = replayService.missedMessages(connection);
+                        if (missed == null) {
+                                // unknown message id, only a full reload can bring the client up to date
+                                broadcaster.broadcast(endpoint, List.of(connection),
+                                                mapper.writeValueAsString(MessageFrames.replay(List.of(), true, false)));
+                                return Map.of("statusCode", 200);
+                        }
+
+                        boolean complete = missed.complete();
+                        List<ConversationMessage> page = missed.messages();
+                        System.out.println("ReplayHandler_3: Replaying " + page.size() + " messages to "
+                                        + connectionId + (complete ? "" : " (incomplete)"));
+
+                        // API Gateway caps a WebSocket message at 128 KB, so the replay goes out in chunks, in order
+                        int from = 0;
+                        do {
+                                int to = Math.min(from + FRAME_SIZE, page.size());
+                                boolean done = to == page.size();
+                                broadcaster.broadcast(endpoint, List.of(connection), mapper.writeValueAsString(
+                                                MessageFrames.replay(page.subList(from, to), done, complete)));
+                                from = to;
+                        } while (from < page.size());
+
+                        return Map.of("statusCode", 200);
+
+                } catch (Exception e) {
+                        System.err.println("ReplayHandler: ERROR: " + e.getMessage());
+                        e.printStackTrace();
+                        return Map.of(
+                                        "statusCode", 500,
+                                        "error", e.getMessage());
+                } finally {
+                        metrics.emit();
+                }
+        }
+}
@@ -1,28 +1,47 @@
 package org.example.handler;
 
-import com.amazonaws.services.apigatewaymanagementapi.AmazonApiGatewayManagementApi;
-import com.amazonaws.services.apigatewaymanagementapi.AmazonApiGatewayManagementApiClientBuilder;
-import com.amazonaws.services.apigatewaymanagementapi.model.GoneException;
-import com.amazonaws.services.apigatewaymanagementapi.model.PostToConnectionRequest;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.metrics.InvocationMetrics;
+import org.example.model.ConversationMessage;
+import org.example.model.MessageSender;
 import org.example.model.WebSocketConnection;
 import org.example.repository.WebSocketConnectionRepository;
+import org.example.service.AttachmentVerifier;
+import org.example.service.ConnectionBroadcaster;
+import org.example.service.MessageFrames;
+import org.example.service.MessageService;
 
-import java.net.URI;
-import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 
 public class SendMessageHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
 
+        // {"action": "sendMessage", "mode": "persist", ...} stores the message before broadcasting it
+        private static final String PERSIST_MODE = "persist";
+
         private final WebSocketConnectionRepository repository = new WebSocketConnectionRepository();
 
+        private final ConnectionBroadcaster broadcaster = new ConnectionBroadcaster(repository);
+
+        private final MessageService messageService = new MessageService();
+
+        private final AttachmentVerifier attachmentVerifier = new AttachmentVerifier();
+
         private final ObjectMapper mapper = new ObjectMapper();
 
         @Override
         public Map<String, Object> handleRequest(Map<String, Object> event, Context context) {
+                InvocationMetrics metrics = InvocationMetrics.start("SendMessageHandler", context);
+                try {
+                        return handle(event, metrics);
+                } finally {
+                        metrics.emit();
+                }
+        }
+
+        private Map<String, Object> handle(Map<String, Object> event, InvocationMetrics metrics) {
                 System.out.println("SendMessageHandler_1: Received request");
 
                 try {
@@ -34,63 +53,25 @@ public class SendMessageHandler implements RequestHandler<Map<String, Object>, M
                                         + requestContext.get("stage");
                         System.out.println("SendMessageHandler_2: Callback Endpoint: " + endpoint);
 
-                        AmazonApiGatewayManagementApi client = AmazonApiGatewayManagementApiClientBuilder.standard()
-                                        .withEndpointConfiguration(
-                                                        new AmazonApiGatewayManagementApiClientBuilder.EndpointConfiguration(
-                                                                        endpoint, "eu-central-1"))
-                                        .build();
-
-                        Map<String, String> payload = mapper.readValue((String) event.get("body"), Map.class);
-                        System.out.println("SendMessageHandler_3: Parsed Body: " + payload);
-
-                        String reportId = payload.get("reportId");
-                        String message = payload.get("message");
+                        Map<String, Object> payload = mapper.readValue((String) event.get("body"), Map.class);
+                        if (metrics.sampled()) {
+                                // Shape of the payload only, the message text never goes to the log
+                                Object message = payload.get("message");
+                                Object attachments = payload.get("attachments");
+                                System.out.println("SendMessageHandler_3: Parsed Body: reportId=" + payload.get("reportId")
+                                                + ", mode=" + payload.get("mode")
+                                                + ", messageLength=" + (message instanceof String text ? text.length() : 0)
+                                                + ", attachments=" + (attachments instanceof List<?> list ? list.size() : 0));
+                        }
+                        metrics.property("reportId", payload.get("reportId"));
 
                         String senderConnectionId = (String) requestContext.get("connectionId");
                         System.out.println("SendMessageHandler_4: Sender Connection ID: " + senderConnectionId);
 
-                        // Robustly determine userType from DB
-                        String userType = "UNKNOWN";
-                        WebSocketConnection senderConn = repository.findByConnectionId(senderConnectionId);
-                        if (senderConn != null) {
-                                userType = senderConn.getUserType();
-                                System.out.println("SendMessageHandler_5: Resolved UserType from DB: " + userType);
-                        } else {
-                                // Fallback to payload (legacy/optimize) or stay UNKNOWN
-                                String payloadUserType = payload.get("userType");
-                                if (payloadUserType != null)
-                                        userType = payloadUserType;
-                                System.out.println("SendMessageHandler_5: UserType from Payload/Default: " + userType);
-                        }
-
-                        List<WebSocketConnection> connections = repository.findByReportId(reportId);
-                        System.out.println("SendMessageHandler_6: Found " + connections.size() + " connections");
-
-                        // Construct outgoing payload
-                        String outgoingData = mapper.writeValueAsString(Map.of(
-                                        "message", message,
-                                        "userType", userType,
-                                        "sender", userType // Adding both for compatibility
-                        ));
-
-                        for (WebSocketConnection conn : connections) {
-                                if (conn.getConnectionId().equals(senderConnectionId)) {
-                                        continue;
-                                }
-
-                                System.out.println("SendMessageHandler_6: Sending to " + conn.getConnectionId());
-                                try {
-                                        client.postToConnection(new PostToConnectionRequest()
-                                                        .withConnectionId(conn.getConnectionId())
-                                                        .withData(ByteBuffer.wrap(outgoingData.getBytes())));
-                                } catch (GoneException e) {
-                                        System.out.println("SendMessageHandler_7: Connection Gone: "
-                                                        + conn.getConnectionId());
-                                        repository.deleteByConnectionId(conn.getConnectionId());
-                                }
+                        if (PERSIST_MODE.equals(payload.get("mode"))) {
+                                return persistAndBroadcast(endpoint, senderConnectionId, payload);
                         }
-
-                        return Map.of("statusCode", 200);
+                        return relay(endpoint, senderConnectionId, payload);
 
                 } catch (Exception e) {
                         System.err.println("SendMessageHandler: ERROR: " + e.getMessage());
@@ -100,4 +81,106 @@ public class SendMessageHandler implements RequestHandler<Map<String, Object>, M
                                         "error", e.getMessage());
                 }
         }
+
+        // Stores the message and pushes it to every socket of the report, the sender's copy doubles as the ack
+        private Map<String, Object> persistAndBroadcast(String endpoint, String senderConnectionId,
+                        Map<String, Object> payload) throws Exception {
+                String reportId = (String) payload.get("reportId");
+                String message = (String) payload.get("message");
+                List<?> attachments = (List<?>) payload.get("attachments");
+
+                // The sender is whoever the connection was registered as, never what the payload claims
+                WebSocketConnection senderConn = repository.touch(senderConnectionId);
+                if (senderConn == null) {
+                        // Expired row: nothing is stored, and only $connect may register the connection again
+                        System.out.println("SendMessageHandler_5: Unknown connection, asking it to reconnect");
+                        return askToReconnect(endpoint, senderConnectionId);
+                }
+                if (reportId == null || !reportId.equals(senderConn.getReportId())) {
+                        return reject(endpoint, senderConn, 403, "Connection is not subscribed to this report");
+                }
+                MessageSender sender = MessageSender.fromUserType(senderConn.getUserType());
+                if (sender == null) {
+                        return reject(endpoint, senderConn, 403, "Unknown userType: " + senderConn.getUserType());
+                }
+                if (message == null || message.trim().isEmpty()) {
+                        return reject(endpoint, senderConn, 400, "Message must not be empty");
+                }
+
+                String attachmentProblem = attachmentVerifier.problem(attachments);
+                if (attachmentProblem != null) {
+                        return reject(endpoint, senderConn, 400, attachmentProblem);
+                }
+
+                ConversationMessage saved = messageService.addMessage(reportId, sender, message,
+                                attachments == null ? null : attachments.stream().map(String.class::cast).toList());
+                if (saved == null) {
+                        return reject(endpoint, senderConn, 404, "Report not found with id: " + reportId);
+                }
+                System.out.println("SendMessageHandler_5: Persisted message " + saved.getId() + " seq " + saved.getSeq());
+
+                List<WebSocketConnection> connections = repository.findByReportId(reportId);
+                int delivered = broadcaster.broadcast(endpoint, connections,
+                                mapper.writeValueAsString(MessageFrames.message(saved)));
+                System.out.println("SendMessageHandler_6: Delivered to " + delivered + " of "
+                                + connections.size() + " connections");
+
+                return Map.of("statusCode", 200);
+        }
+
+        private Map<String, Object> askToReconnect(String endpoint, String connectionId) throws Exception {
+                broadcaster.broadcast(endpoint,
+                                List.of(WebSocketConnection.builder().connectionId(connectionId).build()),
+                                mapper.writeValueAsString(MessageFrames.reconnect()));
+                return Map.of("statusCode", 410);
+        }
+
+        private Map<String, Object> reject(String endpoint, WebSocketConnection senderConn, int status, String error)
+                        throws Exception {
+                System.out.println("SendMessageHandler_5: Rejected (" + status + "): " + error);
+                if (senderConn != null) {
+                        broadcaster.broadcast(endpoint, List.of(senderConn),
+                                        mapper.writeValueAsString(MessageFrames.error(status, error)));
+                }
+                return Map.of("statusCode", status);
+        }
+
+        // Legacy mode: forwards a message the client already stored through the REST API
+        private Map<String, Object> relay(String endpoint, String senderConnectionId, Map<String, Object> payload)
+                        throws Exception {
+                String reportId = (String) payload.get("reportId");
+                String message = (String) payload.get("message");
+
+                // Same rules as persist mode: the sender is whoever $connect authenticated, for its own report only
+                WebSocketConnection senderConn = repository.touch(senderConnectionId);
+                if (senderConn == null) {
+                        System.out.println("SendMessageHandler_5: Unknown connection, asking it to reconnect");
+                        return askToReconnect(endpoint, senderConnectionId);
+                }
+                if (reportId == null || !reportId.equals(senderConn.getReportId())) {
+                        return reject(endpoint, senderConn, 403, "Connection is not subscribed to this report");
+                }
+                String userType = senderConn.getUserType();
+                System.out.println("SendMessageHandler_5: Resolved UserType from DB: " + userType);
+
+                List<WebSocketConnection> connections = repository.findByReportId(reportId);
+                System.out.println("SendMessageHandler_6: Found " + connections.size() + " connections");
+
+                // Construct outgoing payload
+                String outgoingData = mapper.writeValueAsString(Map.of(
+                                "message", message,
+                                "userType", userType,
+                                "sender", userType // Adding both for compatibility
+                ));
+
+                List<WebSocketConnection> recipients = connections.stream()
+                                .filter(conn -> !conn.getConnectionId().equals(senderConnectionId))
+                                .toList();
+
+                int delivered = broadcaster.broadcast(endpoint, recipients, outgoingData);
+                System.out.println("SendMessageHandler_7: Delivered to " + delivered + " of "
+                                + recipients.size() + " connections");
+
+                return Map.of("statusCode", 200);
+        }
 }
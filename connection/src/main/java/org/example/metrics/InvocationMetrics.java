@@ -0,0 +1,159 @@
+package org.example.metrics;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.config.ConnectionSettings;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measurements of one handler invocation, written to stdout as a CloudWatch Embedded Metric Format
+ * document when the invocation ends. CloudWatch turns the values into metrics (dimension Handler)
+ * with percentiles; the document itself stays searchable in Logs Insights.
+ *
+ * A container runs one invocation at a time, so the running invocation is kept in a static field
+ * and code without access to the handler (broadcaster, Mongo listener) records through
+ * {@link #current()}. Outside an invocation, current() records nothing.
+ *
+ * Each invocation is also sampled for verbose logging (LOG_SAMPLE_RATE): handlers build their
+ * detailed log lines only when {@link #sampled()}. Those lines describe the payload (ids, sizes,
+ * counts) and never contain message text or credentials.
+ */
+public final class InvocationMetrics {
+
+    public enum Unit {
+        COUNT("Count"),
+        MILLISECONDS("Milliseconds");
+
+        private final String emfName;
+
+        Unit(String emfName) {
+            this.emfName = emfName;
+        }
+    }
+
+    // CloudWatch accepts at most 100 values per metric in one document
+    private static final int MAX_VALUES_PER_DOCUMENT = 100;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static final AtomicBoolean coldStart = new AtomicBoolean(true);
+
+    private static final InvocationMetrics NONE = new InvocationMetrics(null, null, false);
+
+    private static volatile InvocationMetrics current = NONE;
+
+    private final String handler;
+    private final String requestId;
+    private final boolean sampled;
+    private final Map<String, Series> series = new LinkedHashMap<>();
+    private final Map<String, Object> properties = new LinkedHashMap<>();
+
+    private InvocationMetrics(String handler, String requestId, boolean sampled) {
+        this.handler = handler;
+        this.requestId = requestId;
+        this.sampled = sampled;
+    }
+
+    public static InvocationMetrics start(String handler, Context context) {
+        InvocationMetrics metrics = new InvocationMetrics(handler,
+                context == null ? null : context.getAwsRequestId(),
+                ThreadLocalRandom.current().nextDouble() < ConnectionSettings.LOG_SAMPLE_RATE);
+        metrics.record("ColdStart", Unit.COUNT, coldStart.getAndSet(false) ? 1 : 0);
+        current = metrics;
+        return metrics;
+    }
+
+    public static InvocationMetrics current() {
+        return current;
+    }
+
+    public boolean sampled() {
+        return sampled;
+    }
+
+    public synchronized void record(String metric, Unit unit, double value) {
+        if (handler == null) {
+            return;
+        }
+        series.computeIfAbsent(metric, name -> new Series(unit)).values.add(value);
+    }
+
+    // Searchable in Logs Insights, not a dimension
+    public synchronized void property(String key, Object value) {
+        if (handler != null) {
+            properties.put(key, value);
+        }
+    }
+
+    /**
+     * Writes the document (several, if a metric has more than 100 values) and ends the invocation.
+     */
+    public synchronized void emit() {
+        if (current == this) {
+            current = NONE;
+        }
+        if (handler == null) {
+            return;
+        }
+        long timestamp = System.currentTimeMillis();
+        for (int from = 0; ; from += MAX_VALUES_PER_DOCUMENT) {
+            Map<String, Object> document = document(timestamp, from);
+            if (document == null) {
+                break;
+            }
+            try {
+                // Straight to stdout: the line must be the bare JSON document for CloudWatch to parse it
+                System.out.println(mapper.writeValueAsString(document));
+            } catch (JsonProcessingException e) {
+                System.err.println("InvocationMetrics: ERROR: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    // The document with the values from index 'from' on, null once every metric is written
+    private Map<String, Object> document(long timestamp, int from) {
+        Map<String, Object> document = new LinkedHashMap<>();
+        List<Map<String, String>> definitions = new ArrayList<>();
+        for (Map.Entry<String, Series> entry : series.entrySet()) {
+            List<Double> values = entry.getValue().values;
+            if (from >= values.size()) {
+                continue;
+            }
+            document.put(entry.getKey(), values.subList(from, Math.min(values.size(), from + MAX_VALUES_PER_DOCUMENT)));
+            definitions.add(Map.of("Name", entry.getKey(), "Unit", entry.getValue().unit.emfName));
+        }
+        if (definitions.isEmpty() && from > 0) {
+            return null;
+        }
+
+        document.put("Handler", handler);
+        document.put("requestId", requestId);
+        document.put("sampled", sampled);
+        document.putAll(properties);
+        document.put("_aws", Map.of(
+                "Timestamp", timestamp,
+                "CloudWatchMetrics", List.of(Map.of(
+                        "Namespace", ConnectionSettings.METRICS_NAMESPACE,
+                        "Dimensions", List.of(List.of("Handler")),
+                        "Metrics", definitions))));
+        return document;
+    }
+
+    private static final class Series {
+
+        private final Unit unit;
+        private final List<Double> values = new ArrayList<>();
+
+        private Series(Unit unit) {
+            this.unit = unit;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.metrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the duration of every Mongo command as MongoTime of the running invocation.
+ */
+public class MongoTimingListener implements CommandListener {
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        record(event.getElapsedTime(TimeUnit.MICROSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        record(event.getElapsedTime(TimeUnit.MICROSECONDS));
+    }
+
+    private static void record(long micros) {
+        InvocationMetrics.current().record("MongoTime", InvocationMetrics.Unit.MILLISECONDS, micros / 1000d);
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.model;
+
+import lombok.*;
+import org.bson.BsonType;
+import org.bson.codecs.pojo.annotations.BsonId;
+import org.bson.codecs.pojo.annotations.BsonRepresentation;
+
+import java.time.Instant;
+import java.util.List;
+
+// Stored in "conversation_messages", same shape as the backend's ConversationMessage document
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationMessage {
+
+    @BsonId
+    @BsonRepresentation(BsonType.OBJECT_ID)
+    private String id;
+
+    private String reportId;
+
+    private String tenantId; // selects the data key the message text is encrypted with
+
+    private long seq; // per-report, allocated from whistleblower_reports.messageSeq
+
+    private MessageSender sender;
+
+    private String message;
+
+    private List<String> attachments;
+
+    private boolean readOrUnRead;
+
+    private Instant createdAt;
+
+    // "websocket" for messages stored by this module, which are broadcast when they are stored;
+    // absent for messages written through the backend's REST API
+    private String source;
+}
@@ -0,0 +1,18 @@
+package org.example.model;
+
+// Same values as the backend's org.example.model.MessageSender, stored by name
+public enum MessageSender {
+    REPORTER,
+    COMPLIANCE_TEAM;
+
+    // Maps the userType a socket connected with to the sender its messages are stored under
+    public static MessageSender fromUserType(String userType) {
+        if ("ADMIN".equals(userType)) {
+            return COMPLIANCE_TEAM;
+        }
+        if ("REPORTER".equals(userType)) {
+            return REPORTER;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.model;
+
+import lombok.*;
+
+// The fields of a whistleblower_reports document needed to append a message to it
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportSequence {
+
+    private String reportId;
+
+    private String tenantId;
+
+    private String status;
+
+    private long messageSeq;
+}
@@ -1,23 +1,37 @@
 package org.example.model;
 
 import lombok.*;
-import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.Document;
+import org.bson.BsonType;
+import org.bson.codecs.pojo.annotations.BsonId;
+import org.bson.codecs.pojo.annotations.BsonRepresentation;
 
 import java.time.Instant;
 
-@Document(collection = "websocket_connections")
+// Stored in "websocket_connections", indexes are created by WebSocketConnectionRepository
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class WebSocketConnection {
 
-    @Id
+    // Rows whose $disconnect never arrived expire this long after the last heartbeat.
+    // API Gateway drops connections idle for 10 minutes, clients send a heartbeat every 5.
+    public static final int STALE_AFTER_SECONDS = 15 * 60;
+
+    @BsonId
+    @BsonRepresentation(BsonType.OBJECT_ID)
     private String id;
 
-    private String connectionId;
+    private String connectionId; // unique
+
     private String reportId;
+
     private String userType; // ADMIN / REPORTER
-    private Instant connectedAt;
+
+    private Instant lastSeenAt; // TTL: set on connect, refreshed by heartbeats and sent messages
+
+    // Replay cursor the client reconnected with, consumed by the "replay" route
+    private Long lastSeq;
+
+    private String lastSeenMessageId;
 }
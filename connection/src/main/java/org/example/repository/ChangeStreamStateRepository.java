@@ -0,0 +1,39 @@
+package org.example.repository;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.example.config.MongoClientProvider;
+
+import java.time.Instant;
+
+import static com.mongodb.client.model.Filters.eq;
+
+// Where a change stream consumer left off, one document per consumer
+public class ChangeStreamStateRepository {
+
+        private static final MongoCollection<Document> collection = MongoClientProvider.getDatabase()
+                        .getCollection("change_stream_state");
+
+        public BsonDocument loadResumeToken(String consumer) {
+                Document state = collection.find(eq("_id", consumer)).first();
+                if (state == null || state.get("resumeToken") == null) {
+                        return null;
+                }
+                return state.get("resumeToken", Document.class).toBsonDocument();
+        }
+
+        public void saveResumeToken(String consumer, BsonDocument resumeToken) {
+                collection.replaceOne(
+                                eq("_id", consumer),
+                                new Document("_id", consumer)
+                                                .append("resumeToken", resumeToken)
+                                                .append("updatedAt", Instant.now()),
+                                new ReplaceOptions().upsert(true));
+        }
+
+        public void clear(String consumer) {
+                collection.deleteOne(eq("_id", consumer));
+        }
+}
@@ -0,0 +1,68 @@
+package org.example.repository;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Sorts;
+import org.bson.types.ObjectId;
+import org.example.config.FieldCipherProvider;
+import org.example.config.MongoClientProvider;
+import org.example.crypto.FieldCipher;
+import org.example.model.ConversationMessage;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.gt;
+
+public class ConversationMessageRepository {
+
+        private static final MongoCollection<ConversationMessage> collection = MongoClientProvider.getDatabase()
+                        .getCollection("conversation_messages", ConversationMessage.class);
+
+        private final FieldCipher cipher = FieldCipherProvider.getCipher();
+
+        // Stores the text encrypted, the passed message keeps its plaintext (and gets the new id)
+        public ConversationMessage insert(ConversationMessage message) {
+                if (message.getId() == null) {
+                        message.setId(new ObjectId().toHexString());
+                }
+                collection.insertOne(message.toBuilder()
+                                .message(cipher.encrypt(message.getTenantId(), message.getMessage()))
+                                .build());
+                return message;
+        }
+
+        public ConversationMessage findById(String id) {
+                if (!ObjectId.isValid(id)) {
+                        return null;
+                }
+                return decrypt(collection.find(eq("_id", new ObjectId(id))).first());
+        }
+
+        // Served by the (reportId, seq) index
+        public List<ConversationMessage> findAfterSeq(String reportId, long seq, int limit) {
+                return collection.find(and(eq("reportId", reportId), gt("seq", seq)))
+                                .sort(Sorts.ascending("seq"))
+                                .limit(limit)
+                                .map(this::decrypt)
+                                .into(new ArrayList<>());
+        }
+
+        // For cursors on messages stored before seq existed, served by the (reportId, createdAt) index
+        public List<ConversationMessage> findAfterCreatedAt(String reportId, Instant createdAt, int limit) {
+                return collection.find(and(eq("reportId", reportId), gt("createdAt", createdAt)))
+                                .sort(Sorts.ascending("createdAt"))
+                                .limit(limit)
+                                .map(this::decrypt)
+                                .into(new ArrayList<>());
+        }
+
+        public ConversationMessage decrypt(ConversationMessage message) {
+                if (message != null) {
+                        message.setMessage(cipher.decrypt(message.getMessage()));
+                }
+                return message;
+        }
+}
@@ -0,0 +1,77 @@
+package org.example.repository;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Updates;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.example.config.MongoClientProvider;
+import org.example.model.MessageSender;
+import org.example.model.ReportSequence;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.in;
+
+// Writes to the backend's whistleblower_reports collection, mirroring WhistleblowerReportRepositoryImpl
+public class ReportRepository {
+
+        private static final MongoCollection<ReportSequence> collection = MongoClientProvider.getDatabase()
+                        .getCollection("whistleblower_reports", ReportSequence.class);
+
+        private static final MongoCollection<BsonDocument> documents = MongoClientProvider.getDatabase()
+                        .getCollection("whistleblower_reports", BsonDocument.class);
+
+        // Existence check, next message seq and the sender side's unread count in one round trip,
+        // null if the report does not exist
+        public ReportSequence allocateMessageSeq(String reportId, MessageSender sender) {
+                return collection.findOneAndUpdate(
+                                eq("reportId", reportId),
+                                Updates.combine(
+                                                Updates.inc("messageSeq", 1L),
+                                                Updates.inc(sender == MessageSender.REPORTER
+                                                                ? "unreadFromReporter"
+                                                                : "unreadFromComplianceTeam", 1L)),
+                                new FindOneAndUpdateOptions()
+                                                .projection(Projections.include("reportId", "tenantId", "status", "messageSeq"))
+                                                .returnDocument(ReturnDocument.AFTER));
+        }
+
+        // Conditional on the current status, so concurrent writers apply the transition once.
+        // Returns the status the report had before, null if the transition did not apply
+        public String transitionStatus(String reportId, Collection<String> from, String target, Instant now) {
+                ReportSequence previous = collection.findOneAndUpdate(
+                                and(eq("reportId", reportId), in("status", from)),
+                                Updates.combine(
+                                                Updates.set("status", target),
+                                                Updates.set("updatedAt", now)),
+                                new FindOneAndUpdateOptions()
+                                                .projection(Projections.include("status"))
+                                                .returnDocument(ReturnDocument.BEFORE));
+                return previous == null ? null : previous.getStatus();
+        }
+
+        // Owning tenant and secret key digest of a report, for authenticating sockets; null if it does not exist
+        public BsonDocument findAccess(String reportId) {
+                return documents.find(eq("reportId", reportId))
+                                .projection(Projections.include("tenantId", "secretKeyHash"))
+                                .first();
+        }
+
+        // Public reportIds by document _id, for change events that only carry the documentKey
+        public Map<BsonValue, String> findReportIdsByIds(Collection<BsonValue> ids) {
+                Map<BsonValue, String> reportIds = new HashMap<>();
+                for (BsonDocument report : documents.find(in("_id", ids))
+                                .projection(Projections.include("reportId"))) {
+                        reportIds.put(report.get("_id"), report.getString("reportId").getValue());
+                }
+                return reportIds;
+        }
+}
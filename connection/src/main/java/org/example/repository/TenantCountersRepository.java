@@ -0,0 +1,43 @@
+package org.example.repository;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.example.config.MongoClientProvider;
+
+import java.time.Instant;
+
+import static com.mongodb.client.model.Filters.eq;
+
+// $inc updates on the backend's tenant_counters, mirroring TenantCountersRepositoryImpl
+public class TenantCountersRepository {
+
+        private static final MongoCollection<Document> collection = MongoClientProvider.getDatabase()
+                        .getCollection("tenant_counters");
+
+        public void recordTransition(String tenantId, String from, String to) {
+                if (from.equals(to)) {
+                        return;
+                }
+                increment(tenantId, Updates.combine(
+                                Updates.inc("byStatus." + from, -1L),
+                                Updates.inc("byStatus." + to, 1L)));
+        }
+
+        public void recordUnreadMessages(String tenantId, long delta) {
+                if (delta == 0) {
+                        return;
+                }
+                increment(tenantId, Updates.inc("unreadMessages", delta));
+        }
+
+        private void increment(String tenantId, Bson update) {
+                collection.updateOne(
+                                eq("_id", tenantId),
+                                // version tells a concurrent rebuild in the backend that the counters moved
+                                Updates.combine(update, Updates.set("updatedAt", Instant.now()), Updates.inc("version", 1L)),
+                                new UpdateOptions().upsert(true));
+        }
+}
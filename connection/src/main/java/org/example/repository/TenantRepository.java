@@ -0,0 +1,25 @@
+package org.example.repository;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Projections;
+import org.bson.Document;
+import org.example.config.MongoClientProvider;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.ne;
+
+// Reads the backend's tenants collection
+public class TenantRepository {
+
+        private static final MongoCollection<Document> collection = MongoClientProvider.getDatabase()
+                        .getCollection("tenants");
+
+        // tenantId of the active tenant an admin signs in as, same lookup as the backend's /admin/me
+        public String findActiveTenantIdByEmail(String email) {
+                Document tenant = collection.find(and(eq("email", email), ne("active", false)))
+                                .projection(Projections.include("tenantId"))
+                                .first();
+                return tenant == null ? null : tenant.getString("tenantId");
+        }
+}
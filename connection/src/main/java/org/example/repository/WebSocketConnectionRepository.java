@@ -1,40 +1,104 @@
 package org.example.repository;
 
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import org.bson.conversions.Bson;
 import org.example.config.MongoClientProvider;
+import org.example.metrics.InvocationMetrics;
 import org.example.model.WebSocketConnection;
-import org.springframework.data.mongodb.core.MongoTemplate;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.in;
 
 public class WebSocketConnectionRepository {
 
-        private final MongoTemplate mongoTemplate = MongoClientProvider.getMongoTemplate();
+        private static final MongoCollection<WebSocketConnection> collection = MongoClientProvider.getDatabase()
+                        .getCollection("websocket_connections", WebSocketConnection.class);
+
+        // Idempotent, one round trip per container while it initializes
+        static {
+                collection.createIndexes(List.of(
+                                new IndexModel(Indexes.ascending("connectionId"),
+                                                new IndexOptions().name("connectionId").unique(true)),
+                                new IndexModel(Indexes.ascending("reportId"),
+                                                new IndexOptions().name("reportId")),
+                                new IndexModel(Indexes.ascending("lastSeenAt"),
+                                                new IndexOptions().name("lastSeenAt")
+                                                                .expireAfter((long) WebSocketConnection.STALE_AFTER_SECONDS,
+                                                                                TimeUnit.SECONDS))));
+        }
+
+        // $connect can be retried by API Gateway, so connecting twice must not create a second row
+        public void upsert(String connectionId, String reportId, String userType) {
+                upsert(connectionId, reportId, userType, null, null);
+        }
+
+        public void upsert(String connectionId, String reportId, String userType,
+                        Long lastSeq, String lastSeenMessageId) {
+                collection.updateOne(
+                                byConnectionId(connectionId),
+                                Updates.combine(
+                                                Updates.set("reportId", reportId),
+                                                Updates.set("userType", userType),
+                                                Updates.set("lastSeenAt", Instant.now()),
+                                                lastSeq == null ? Updates.unset("lastSeq")
+                                                                : Updates.set("lastSeq", lastSeq),
+                                                lastSeenMessageId == null ? Updates.unset("lastSeenMessageId")
+                                                                : Updates.set("lastSeenMessageId", lastSeenMessageId)),
+                                new UpdateOptions().upsert(true));
+        }
 
-        public void save(WebSocketConnection connection) {
-                mongoTemplate.save(connection);
+        // Returns the connection with its replay cursor and clears the cursor, so a replay runs once
+        public WebSocketConnection takeReplayCursor(String connectionId) {
+                return collection.findOneAndUpdate(
+                                byConnectionId(connectionId),
+                                Updates.combine(
+                                                Updates.set("lastSeenAt", Instant.now()),
+                                                Updates.unset("lastSeq"),
+                                                Updates.unset("lastSeenMessageId")),
+                                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.BEFORE));
+        }
+
+        // Refreshes the TTL and returns the connection, null if it is unknown (or already expired)
+        public WebSocketConnection touch(String connectionId) {
+                return collection.findOneAndUpdate(
+                                byConnectionId(connectionId),
+                                Updates.set("lastSeenAt", Instant.now()),
+                                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
         }
 
         public void deleteByConnectionId(String connectionId) {
-                mongoTemplate.remove(
-                                org.springframework.data.mongodb.core.query.Query.query(
-                                                org.springframework.data.mongodb.core.query.Criteria
-                                                                .where("connectionId").is(connectionId)),
-                                WebSocketConnection.class);
+                collection.deleteOne(byConnectionId(connectionId));
+        }
+
+        // One round trip for any number of stale connections
+        public void deleteByConnectionIds(Collection<String> connectionIds) {
+                collection.deleteMany(in("connectionId", connectionIds));
         }
 
         public List<WebSocketConnection> findByReportId(String reportId) {
-                return mongoTemplate.find(
-                                org.springframework.data.mongodb.core.query.Query.query(
-                                                org.springframework.data.mongodb.core.query.Criteria
-                                                                .where("reportId").is(reportId)),
-                                WebSocketConnection.class);
+                List<WebSocketConnection> connections = collection.find(eq("reportId", reportId)).into(new ArrayList<>());
+                InvocationMetrics.current().record("ConnectionsPerReport", InvocationMetrics.Unit.COUNT, connections.size());
+                return connections;
         }
 
         public WebSocketConnection findByConnectionId(String connectionId) {
-                return mongoTemplate.findOne(
-                                org.springframework.data.mongodb.core.query.Query.query(
-                                                org.springframework.data.mongodb.core.query.Criteria
-                                                                .where("connectionId").is(connectionId)),
-                                WebSocketConnection.class);
+                return collection.find(byConnectionId(connectionId)).first();
+        }
+
+        private static Bson byConnectionId(String connectionId) {
+                return eq("connectionId", connectionId);
         }
 }
@@ -0,0 +1,48 @@
+package org.example.service;
+
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import org.example.config.ConnectionSettings;
+import org.example.config.S3ClientProvider;
+
+import java.util.List;
+
+/**
+ * The backend's S3Service.verifyUploaded for messages sent over the socket: every attachment key
+ * must name an object the client actually uploaded through a presigned URL, within the size limit.
+ * One HEAD request per key.
+ */
+public class AttachmentVerifier {
+
+    /**
+     * @return why the attachments are rejected, null if they are fine
+     */
+    public String problem(List<?> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return null;
+        }
+        if (ConnectionSettings.ATTACHMENT_BUCKET == null || ConnectionSettings.ATTACHMENT_BUCKET.isBlank()) {
+            return "Attachments are not supported over the socket, send the message through the API";
+        }
+
+        long maxBytes = ConnectionSettings.MAX_UPLOAD_MB * 1024L * 1024L;
+        for (Object key : keys) {
+            if (!(key instanceof String name) || name.isBlank()) {
+                return "Attachment key must not be empty";
+            }
+            try {
+                ObjectMetadata head = S3ClientProvider.getClient()
+                        .getObjectMetadata(ConnectionSettings.ATTACHMENT_BUCKET, name);
+                if (head.getContentLength() > maxBytes) {
+                    return "Attachment too large: " + name;
+                }
+            } catch (AmazonS3Exception e) {
+                if (e.getStatusCode() == 404) {
+                    return "Attachment not found: " + name;
+                }
+                throw e;
+            }
+        }
+        return null;
+    }
+}
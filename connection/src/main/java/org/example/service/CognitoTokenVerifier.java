@@ -0,0 +1,113 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Checks a Cognito JWT the way the backend's resource server does: RS256 signature against the
+// user pool's published keys, issuer and expiry. Sockets have no Spring context to lean on.
+public class CognitoTokenVerifier {
+
+        // Unknown key ids refetch the key set (Cognito rotates keys), but not more often than this
+        private static final long REFRESH_INTERVAL_MILLIS = 60_000;
+
+        private final String issuer;
+
+        private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(3)).build();
+
+        private final ObjectMapper mapper = new ObjectMapper();
+
+        private final Map<String, PublicKey> keys = new ConcurrentHashMap<>();
+
+        private volatile long fetchedAt;
+
+        public CognitoTokenVerifier(String issuer) {
+                this.issuer = issuer == null || issuer.isBlank() ? null : issuer.trim();
+        }
+
+        // Claims of a valid token, null for anything else
+        public JsonNode verify(String token) {
+                if (issuer == null || token == null) {
+                        return null;
+                }
+                String[] parts = token.split("\\.");
+                if (parts.length != 3) {
+                        return null;
+                }
+                try {
+                        JsonNode header = mapper.readTree(Base64.getUrlDecoder().decode(parts[0]));
+                        if (!"RS256".equals(header.path("alg").asText())) {
+                                return null;
+                        }
+                        PublicKey key = key(header.path("kid").asText());
+                        if (key == null) {
+                                return null;
+                        }
+                        Signature rsa = Signature.getInstance("SHA256withRSA");
+                        rsa.initVerify(key);
+                        rsa.update((parts[0] + "." + parts[1]).getBytes(StandardCharsets.US_ASCII));
+                        if (!rsa.verify(Base64.getUrlDecoder().decode(parts[2]))) {
+                                return null;
+                        }
+
+                        JsonNode claims = mapper.readTree(Base64.getUrlDecoder().decode(parts[1]));
+                        if (!issuer.equals(claims.path("iss").asText())) {
+                                return null;
+                        }
+                        if (claims.path("exp").asLong() * 1000 <= System.currentTimeMillis()) {
+                                return null;
+                        }
+                        return claims;
+                } catch (Exception e) {
+                        System.out.println("CognitoTokenVerifier: Rejected token: " + e.getMessage());
+                        return null;
+                }
+        }
+
+        private PublicKey key(String kid) throws Exception {
+                PublicKey key = keys.get(kid);
+                if (key == null && System.currentTimeMillis() - fetchedAt > REFRESH_INTERVAL_MILLIS) {
+                        fetchKeys();
+                        key = keys.get(kid);
+                }
+                return key;
+        }
+
+        private synchronized void fetchKeys() throws Exception {
+                if (System.currentTimeMillis() - fetchedAt <= REFRESH_INTERVAL_MILLIS) {
+                        return;
+                }
+                fetchedAt = System.currentTimeMillis();
+                HttpResponse<String> response = http.send(
+                                HttpRequest.newBuilder(URI.create(issuer + "/.well-known/jwks.json"))
+                                                .timeout(Duration.ofSeconds(3))
+                                                .build(),
+                                HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                        throw new IllegalStateException("JWKS request returned " + response.statusCode());
+                }
+                KeyFactory factory = KeyFactory.getInstance("RSA");
+                for (JsonNode jwk : mapper.readTree(response.body()).path("keys")) {
+                        if (!"RSA".equals(jwk.path("kty").asText())) {
+                                continue;
+                        }
+                        keys.put(jwk.path("kid").asText(), factory.generatePublic(new RSAPublicKeySpec(
+                                        new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("n").asText())),
+                                        new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("e").asText())))));
+                }
+        }
+}
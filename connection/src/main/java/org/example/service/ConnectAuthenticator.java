@@ -0,0 +1,92 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.bson.BsonDocument;
+import org.example.config.ConnectionSettings;
+import org.example.repository.ReportRepository;
+import org.example.repository.TenantRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+
+// Decides who a socket may subscribe as, from the $connect query string. Browsers cannot set headers
+// on a WebSocket handshake, so the credentials travel as ?secretKey= (reporters) or ?token= (admins).
+public class ConnectAuthenticator {
+
+        public record Subscriber(String reportId, String userType) {
+        }
+
+        private final ReportRepository reportRepository;
+
+        private final TenantRepository tenantRepository;
+
+        private final CognitoTokenVerifier tokenVerifier;
+
+        public ConnectAuthenticator() {
+                this(new ReportRepository(), new TenantRepository(),
+                                new CognitoTokenVerifier(ConnectionSettings.COGNITO_ISSUER));
+        }
+
+        public ConnectAuthenticator(ReportRepository reportRepository, TenantRepository tenantRepository,
+                        CognitoTokenVerifier tokenVerifier) {
+                this.reportRepository = reportRepository;
+                this.tenantRepository = tenantRepository;
+                this.tokenVerifier = tokenVerifier;
+        }
+
+        // The report and role the credentials grant, null if they grant nothing
+        public Subscriber authenticate(Map<String, String> query) {
+                if (query == null) {
+                        return null;
+                }
+                String reportId = query.get("reportId");
+                String userType = query.get("userType");
+                if (reportId == null || reportId.isBlank()) {
+                        return null;
+                }
+                BsonDocument report = reportRepository.findAccess(reportId);
+                if (report == null) {
+                        return null;
+                }
+
+                boolean allowed = switch (userType == null ? "" : userType) {
+                        case "REPORTER" -> reporterOwns(report, query.get("secretKey"));
+                        case "ADMIN" -> adminOwns(report, query.get("token"));
+                        default -> false;
+                };
+                return allowed ? new Subscriber(reportId, userType) : null;
+        }
+
+        // Only the digest of a secret key is stored, same as the backend's SecretKeyLookup.hash
+        private static boolean reporterOwns(BsonDocument report, String secretKey) {
+                if (secretKey == null || secretKey.isBlank() || !report.isString("secretKeyHash")) {
+                        return false;
+                }
+                byte[] expected = report.getString("secretKeyHash").getValue().getBytes(StandardCharsets.US_ASCII);
+                return MessageDigest.isEqual(expected, hash(secretKey).getBytes(StandardCharsets.US_ASCII));
+        }
+
+        // Admins sign in per tenant: the token's email claim (the subject where there is none, as in the
+        // backend's /admin/me) has to belong to the tenant the report was filed with
+        private boolean adminOwns(BsonDocument report, String token) {
+                JsonNode claims = tokenVerifier.verify(token);
+                if (claims == null || !report.isString("tenantId")) {
+                        return false;
+                }
+                String email = claims.hasNonNull("email") ? claims.get("email").asText() : claims.path("sub").asText();
+                String tenantId = tenantRepository.findActiveTenantIdByEmail(email);
+                return tenantId != null && tenantId.equals(report.getString("tenantId").getValue());
+        }
+
+        static String hash(String secretKey) {
+                try {
+                        byte[] digest = MessageDigest.getInstance("SHA-256").digest(secretKey.getBytes(StandardCharsets.UTF_8));
+                        return HexFormat.of().formatHex(digest);
+                } catch (NoSuchAlgorithmException e) {
+                        throw new IllegalStateException("SHA-256 is not available", e);
+                }
+        }
+}
@@ -0,0 +1,110 @@
+package org.example.service;
+
+import com.amazonaws.services.apigatewaymanagementapi.AmazonApiGatewayManagementApi;
+import com.amazonaws.services.apigatewaymanagementapi.model.GoneException;
+import com.amazonaws.services.apigatewaymanagementapi.model.PostToConnectionRequest;
+import org.example.config.ApiGatewayClientProvider;
+import org.example.config.ConnectionSettings;
+import org.example.metrics.InvocationMetrics;
+import org.example.model.WebSocketConnection;
+import org.example.repository.WebSocketConnectionRepository;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Posts one payload to many WebSocket connections at once. The posts run concurrently on a
+ * bounded pool, so a broadcast takes about as long as the slowest single post; connections
+ * that API Gateway reports as gone are removed afterwards in one delete.
+ */
+public class ConnectionBroadcaster {
+
+    // Shared across invocations of a warm container, daemon threads so they never block a freeze
+    private static final ExecutorService executor = Executors.newFixedThreadPool(
+            ConnectionSettings.POST_PARALLELISM, daemonThreads());
+
+    private final WebSocketConnectionRepository repository;
+
+    public ConnectionBroadcaster(WebSocketConnectionRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * @return the number of connections the payload was delivered to
+     */
+    public int broadcast(String endpoint, List<WebSocketConnection> recipients, String data) {
+        if (recipients.isEmpty()) {
+            return 0;
+        }
+
+        AmazonApiGatewayManagementApi client = ApiGatewayClientProvider.getClient(endpoint);
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        InvocationMetrics metrics = InvocationMetrics.current();
+        metrics.record("FanOut", InvocationMetrics.Unit.COUNT, recipients.size());
+
+        List<Future<Boolean>> posts = new ArrayList<>(recipients.size());
+        for (WebSocketConnection recipient : recipients) {
+            posts.add(executor.submit(() -> post(client, recipient.getConnectionId(), bytes, metrics)));
+        }
+
+        int delivered = 0;
+        List<String> gone = new ArrayList<>();
+        for (int i = 0; i < posts.size(); i++) {
+            String connectionId = recipients.get(i).getConnectionId();
+            try {
+                if (posts.get(i).get()) {
+                    delivered++;
+                } else {
+                    gone.add(connectionId);
+                }
+            } catch (ExecutionException e) {
+                metrics.record("PostErrors", InvocationMetrics.Unit.COUNT, 1);
+                System.err.println("ConnectionBroadcaster: ERROR posting to " + connectionId + ": "
+                        + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        metrics.record("GoneConnections", InvocationMetrics.Unit.COUNT, gone.size());
+        if (!gone.isEmpty()) {
+            System.out.println("ConnectionBroadcaster_1: Removing " + gone.size() + " gone connections");
+            repository.deleteByConnectionIds(gone);
+        }
+        return delivered;
+    }
+
+    // false when the connection no longer exists on the API Gateway side
+    private static boolean post(AmazonApiGatewayManagementApi client, String connectionId, byte[] data,
+            InvocationMetrics metrics) {
+        long started = System.nanoTime();
+        try {
+            client.postToConnection(new PostToConnectionRequest()
+                    .withConnectionId(connectionId)
+                    .withData(ByteBuffer.wrap(data)));
+            return true;
+        } catch (GoneException e) {
+            return false;
+        } finally {
+            metrics.record("PostLatency", InvocationMetrics.Unit.MILLISECONDS, (System.nanoTime() - started) / 1_000_000d);
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "ws-post-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.service;
+
+import org.example.model.ConversationMessage;
+import org.example.model.MessageSender;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Shapes of the frames pushed to WebSocket clients
+public final class MessageFrames {
+
+    private MessageFrames() {
+    }
+
+    // A stored message, with the same field names (and epoch-second createdAt) as the REST conversation
+    public static Map<String, Object> message(ConversationMessage message) {
+        Map<String, Object> frame = new HashMap<>();
+        frame.put("type", "message");
+        frame.put("id", message.getId());
+        frame.put("reportId", message.getReportId());
+        frame.put("seq", message.getSeq());
+        frame.put("sender", message.getSender().name());
+        frame.put("userType", message.getSender() == MessageSender.COMPLIANCE_TEAM ? "ADMIN" : "REPORTER");
+        frame.put("message", message.getMessage());
+        frame.put("attachments", message.getAttachments() == null ? List.of() : message.getAttachments());
+        frame.put("createdAt", message.getCreatedAt().toEpochMilli() / 1000.0);
+        return frame;
+    }
+
+    // Missed messages for a reconnecting client, split over several frames when needed (done marks
+    // the last one). complete=false means the replay could not bring the client up to date (too many
+    // missed, or a message still being written), and the client should reload the conversation
+    public static Map<String, Object> replay(List<ConversationMessage> messages, boolean done, boolean complete) {
+        return Map.of(
+                "type", "replay",
+                "messages", messages.stream().map(MessageFrames::message).toList(),
+                "done", done,
+                "complete", complete);
+    }
+
+    // The report moved to another status (set by an admin or by the first reply)
+    public static Map<String, Object> status(String reportId, String status, Instant updatedAt) {
+        Map<String, Object> frame = new HashMap<>();
+        frame.put("type", "status");
+        frame.put("reportId", reportId);
+        frame.put("status", status);
+        frame.put("updatedAt", updatedAt == null ? null : updatedAt.toEpochMilli() / 1000.0);
+        return frame;
+    }
+
+    // Several message/status frames of one report pushed together, in the order they were written
+    public static Map<String, Object> batch(String reportId, List<Map<String, Object>> events) {
+        return Map.of(
+                "type", "batch",
+                "reportId", reportId,
+                "events", events);
+    }
+
+    // The server no longer knows this connection (its row expired); the client should open a new socket
+    public static Map<String, Object> reconnect() {
+        return Map.of("type", "reconnect");
+    }
+
+    public static Map<String, Object> error(int status, String error) {
+        return Map.of(
+                "type", "error",
+                "status", status,
+                "error", error);
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.service;
+
+import org.example.model.ConversationMessage;
+import org.example.model.MessageSender;
+import org.example.model.ReportSequence;
+import org.example.repository.ConversationMessageRepository;
+import org.example.repository.ReportRepository;
+import org.example.repository.TenantCountersRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Persists a chat message sent over the socket with the same side effects as the backend's
+ * ConversationService.addMessage: a per-report seq, an admin reply moving an untriaged
+ * report to IN_PROGRESS, and the tenant's dashboard counters.
+ */
+public class MessageService {
+
+    // ReportStatus.IN_PROGRESS.allowedFrom() in the backend, minus the terminal statuses
+    private static final List<String> REPLY_ADVANCES_FROM = List.of("NEW", "RECEIVED");
+
+    // Lets the change stream consumer skip messages that were already broadcast
+    public static final String SOURCE = "websocket";
+
+    private final ReportRepository reportRepository = new ReportRepository();
+
+    private final ConversationMessageRepository messageRepository = new ConversationMessageRepository();
+
+    private final TenantCountersRepository countersRepository = new TenantCountersRepository();
+
+    /**
+     * @return the stored message, null if the report does not exist
+     */
+    public ConversationMessage addMessage(String reportId, MessageSender sender, String message,
+                                          List<String> attachments) {
+        ReportSequence report = reportRepository.allocateMessageSeq(reportId, sender);
+        if (report == null) {
+            return null;
+        }
+
+        Instant now = Instant.now();
+        if (sender == MessageSender.COMPLIANCE_TEAM && REPLY_ADVANCES_FROM.contains(report.getStatus())) {
+            String previous = reportRepository.transitionStatus(reportId, REPLY_ADVANCES_FROM, "IN_PROGRESS", now);
+            if (previous != null) {
+                countersRepository.recordTransition(report.getTenantId(), previous, "IN_PROGRESS");
+            }
+        }
+        if (sender == MessageSender.REPORTER) {
+            countersRepository.recordUnreadMessages(report.getTenantId(), 1);
+        }
+
+        return messageRepository.insert(ConversationMessage.builder()
+                .reportId(reportId)
+                .tenantId(report.getTenantId())
+                .seq(report.getMessageSeq())
+                .sender(sender)
+                .message(message)
+                .attachments(attachments)
+                .readOrUnRead(false) // default unread
+                .createdAt(now)
+                .source(SOURCE)
+                .build());
+    }
+}
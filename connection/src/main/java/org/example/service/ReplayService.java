@@ -0,0 +1,78 @@
+package org.example.service;
+
+import org.example.model.ConversationMessage;
+import org.example.model.WebSocketConnection;
+import org.example.repository.ConversationMessageRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+// Finds the messages a reconnecting client missed, based on the cursor it connected with
+public class ReplayService {
+
+    // Past this the client is better off reloading the conversation through the REST API
+    public static final int MAX_REPLAY = 200;
+
+    // Same as the backend's MessageWindow.GAP_GRACE: longer than any write that allocates a seq may take
+    static final Duration GAP_GRACE = Duration.ofSeconds(60);
+
+    private final ConversationMessageRepository messageRepository = new ConversationMessageRepository();
+
+    /**
+     * Missed messages, oldest first. complete=false when the client has to reload the conversation
+     * to catch up: more than MAX_REPLAY were missed, or the replay stops at a seq that is still
+     * being written.
+     */
+    public record Replay(List<ConversationMessage> messages, boolean complete) {
+    }
+
+    /**
+     * @return the replay, null if the cursor cannot be resolved
+     */
+    public Replay missedMessages(WebSocketConnection connection) {
+        String reportId = connection.getReportId();
+
+        if (connection.getLastSeq() != null) {
+            long lastSeq = connection.getLastSeq();
+            return bySeq(lastSeq, messageRepository.findAfterSeq(reportId, lastSeq, MAX_REPLAY + 1));
+        }
+
+        ConversationMessage lastSeen = messageRepository.findById(connection.getLastSeenMessageId());
+        if (lastSeen == null || !reportId.equals(lastSeen.getReportId())) {
+            return null;
+        }
+        if (lastSeen.getSeq() > 0) {
+            return bySeq(lastSeen.getSeq(),
+                    messageRepository.findAfterSeq(reportId, lastSeen.getSeq(), MAX_REPLAY + 1));
+        }
+        // Messages stored before seq existed have seq 0, or a negative one once backfilled (newest -1),
+        // and the client cursor may predate the backfill, so they are replayed by createdAt
+        List<ConversationMessage> missed = messageRepository.findAfterCreatedAt(
+                reportId, lastSeen.getCreatedAt(), MAX_REPLAY + 1);
+        return truncated(missed);
+    }
+
+    // A seq is allocated before its message is inserted, so seq n+1 can be stored while n is still
+    // being written. Replaying past such a hole would move the client's cursor over n for good; the
+    // replay stops before it instead and the client reloads. Holes older than GAP_GRACE come from
+    // failed writes and are skipped.
+    private static Replay bySeq(long lastSeq, List<ConversationMessage> missed) {
+        Instant staleBefore = Instant.now().minus(GAP_GRACE);
+        long previous = lastSeq;
+        for (int i = 0; i < missed.size() && i < MAX_REPLAY; i++) {
+            ConversationMessage message = missed.get(i);
+            boolean hole = message.getSeq() > Math.max(previous, 0) + 1;
+            if (hole && message.getCreatedAt() != null && message.getCreatedAt().isAfter(staleBefore)) {
+                return new Replay(missed.subList(0, i), false);
+            }
+            previous = message.getSeq();
+        }
+        return truncated(missed);
+    }
+
+    private static Replay truncated(List<ConversationMessage> missed) {
+        boolean complete = missed.size() <= MAX_REPLAY;
+        return new Replay(complete ? missed : missed.subList(0, MAX_REPLAY), complete);
+    }
+}
@@ -0,0 +1,244 @@
+package org.example.handler;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Updates;
+import com.sun.net.httpserver.HttpServer;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.example.StubContext;
+import org.example.config.MongoClientProvider;
+import org.example.model.ConversationMessage;
+import org.example.model.MessageSender;
+import org.example.repository.ChangeStreamStateRepository;
+import org.example.repository.ConversationMessageRepository;
+import org.example.repository.WebSocketConnectionRepository;
+import org.example.service.MessageService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.mongodb.client.model.Filters.eq;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the handler against a single-node replica set (change streams need one) and a local HTTP
+ * server standing in for the API Gateway management API, which records what is posted to which
+ * connection.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ChangeStreamHandlerTest {
+
+    @Container
+    static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    // The handler stops tailing 5 s before the deadline, so this tails for about 2.5 s
+    private static final long RUN_MILLIS = 7_500;
+
+    private static final String CONSUMER = "websocket-push";
+
+    private static final Map<String, List<String>> posted = new ConcurrentHashMap<>();
+
+    private static HttpServer apiGateway;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private ChangeStreamHandler handler;
+    private WebSocketConnectionRepository connections;
+    private ConversationMessageRepository messages;
+    private ChangeStreamStateRepository state;
+
+    @BeforeAll
+    static void startApiGateway() throws IOException {
+        // POST /@connections/{connectionId}
+        apiGateway = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        apiGateway.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            String connectionId = path.substring(path.lastIndexOf('/') + 1);
+            posted.computeIfAbsent(connectionId, id -> new CopyOnWriteArrayList<>())
+                    .add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        apiGateway.start();
+
+        // Settings are read once, when the first handler class loads; this JVM only runs this class
+        System.setProperty("MONGO_URI", mongo.getReplicaSetUrl());
+        System.setProperty("WEBSOCKET_ENDPOINT", "http://localhost:" + apiGateway.getAddress().getPort());
+        byte[] masterKey = new byte[32];
+        new SecureRandom().nextBytes(masterKey);
+        System.setProperty("MASTER_KEY", Base64.getEncoder().encodeToString(masterKey));
+        System.setProperty("aws.accessKeyId", "test");
+        System.setProperty("aws.secretKey", "test");
+    }
+
+    @AfterAll
+    static void stopApiGateway() {
+        apiGateway.stop(0);
+    }
+
+    @BeforeEach
+    void setUp() {
+        handler = new ChangeStreamHandler();
+        connections = new WebSocketConnectionRepository();
+        messages = new ConversationMessageRepository();
+        state = new ChangeStreamStateRepository();
+
+        // Catch up with everything earlier tests wrote, then start from a clean slate
+        run();
+        posted.clear();
+    }
+
+    @Test
+    void nextRunResumesAfterStoredToken() throws Exception {
+        BsonDocument before = state.loadResumeToken(CONSUMER);
+        assertNotNull(before, "an idle run stores the post-batch token");
+
+        String reportId = newReport();
+        connections.upsert("conn-a", reportId, "REPORTER");
+        insertMessage(reportId, 1, null);
+
+        // Written while no run was tailing: only the stored token lets the next run see it
+        run();
+
+        assertEquals(List.of("message"), frames("conn-a").stream().map(frame -> frame.get("type")).toList());
+        BsonDocument after = state.loadResumeToken(CONSUMER);
+        assertNotEquals(before, after);
+
+        // The token was stored after the batch, a later run does not push the message again
+        posted.clear();
+        run();
+        assertTrue(posted.isEmpty(), "pushed again: " + posted);
+        assertEquals(after, state.loadResumeToken(CONSUMER));
+    }
+
+    @Test
+    void pushesOneFramePerReport() throws Exception {
+        String first = newReport();
+        String second = newReport();
+        String quiet = newReport();
+        connections.upsert("first-reporter", first, "REPORTER");
+        connections.upsert("first-admin", first, "ADMIN");
+        connections.upsert("second-reporter", second, "REPORTER");
+        connections.upsert("quiet-reporter", quiet, "REPORTER");
+
+        insertMessage(first, 1, null);
+        insertMessage(first, 2, MessageService.SOURCE); // already broadcast by SendMessageHandler
+        reports().updateOne(eq("reportId", first), Updates.combine(
+                Updates.set("status", "IN_PROGRESS"),
+                Updates.set("updatedAt", Instant.now())));
+        insertMessage(first, 3, null);
+        insertMessage(second, 1, null);
+
+        run();
+
+        for (String connectionId : List.of("first-reporter", "first-admin")) {
+            List<Map<String, Object>> frames = frames(connectionId);
+            assertEquals(1, frames.size(), connectionId + " got " + frames);
+            Map<String, Object> batch = frames.get(0);
+            assertEquals("batch", batch.get("type"));
+            assertEquals(first, batch.get("reportId"));
+
+            List<Map<String, Object>> events = (List<Map<String, Object>>) batch.get("events");
+            assertEquals(List.of("message", "status", "message"), events.stream().map(e -> e.get("type")).toList());
+            assertEquals(1, ((Number) events.get(0).get("seq")).intValue());
+            assertEquals("IN_PROGRESS", events.get(1).get("status"));
+            assertEquals(3, ((Number) events.get(2).get("seq")).intValue());
+        }
+
+        List<Map<String, Object>> secondFrames = frames("second-reporter");
+        assertEquals(1, secondFrames.size());
+        assertEquals("message", secondFrames.get(0).get("type"));
+        assertEquals(second, secondFrames.get(0).get("reportId"));
+
+        assertEquals(List.of(), frames("quiet-reporter"));
+    }
+
+    @Test
+    void undecodableEventIsSkippedWithoutBlockingTheStream() throws Exception {
+        String broken = newReport();
+        String healthy = newReport();
+        connections.upsert("broken-reporter", broken, "REPORTER");
+        connections.upsert("healthy-reporter", healthy, "REPORTER");
+
+        // seq is not a number, the codec cannot decode the event
+        MongoClientProvider.getDatabase().getCollection("conversation_messages").insertOne(
+                new Document("reportId", broken)
+                        .append("tenantId", "tenant-1")
+                        .append("seq", "not-a-number")
+                        .append("sender", "REPORTER")
+                        .append("message", "broken"));
+        insertMessage(healthy, 1, null);
+
+        run();
+
+        assertEquals(List.of(), frames("broken-reporter"));
+        assertEquals(List.of("message"), frames("healthy-reporter").stream().map(frame -> frame.get("type")).toList());
+
+        // The token moved past the broken event, the next run neither fails on it nor pushes again
+        posted.clear();
+        run();
+        assertTrue(posted.isEmpty(), "pushed again: " + posted);
+    }
+
+    private void run() {
+        Map<String, Object> response = handler.handleRequest(Map.of(),
+                new StubContext(UUID.randomUUID().toString(), RUN_MILLIS));
+        assertEquals(200, response.get("statusCode"), "handler failed: " + response);
+    }
+
+    private static MongoCollection<Document> reports() {
+        return MongoClientProvider.getDatabase().getCollection("whistleblower_reports");
+    }
+
+    private static String newReport() {
+        String reportId = UUID.randomUUID().toString();
+        reports().insertOne(new Document("reportId", reportId)
+                .append("tenantId", "tenant-1")
+                .append("status", "NEW")
+                .append("messageSeq", 0L));
+        return reportId;
+    }
+
+    private void insertMessage(String reportId, long seq, String source) {
+        messages.insert(ConversationMessage.builder()
+                .reportId(reportId)
+                .tenantId("tenant-1")
+                .seq(seq)
+                .sender(MessageSender.COMPLIANCE_TEAM)
+                .message("message " + seq)
+                .attachments(List.of())
+                .createdAt(Instant.now())
+                .source(source)
+                .build());
+    }
+
+    private List<Map<String, Object>> frames(String connectionId) throws IOException {
+        List<Map<String, Object>> frames = new ArrayList<>();
+        for (String body : posted.getOrDefault(connectionId, List.of())) {
+            frames.add(mapper.readValue(body, new TypeReference<Map<String, Object>>() { }));
+        }
+        return frames;
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.StubContext;
+import org.example.metrics.InvocationMetrics.Unit;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Parses what emit() prints the way CloudWatch does: every line is one JSON document, and every
+ * metric declared under _aws.CloudWatchMetrics has its values at the top level of that document.
+ * Surefire starts a fresh JVM for each test class, so the first invocation here is the cold start.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class InvocationMetricsTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    @Order(1)
+    void onlyTheFirstInvocationIsAColdStart() throws Exception {
+        List<JsonNode> first = emit(InvocationMetrics.start("ConnectHandler", new StubContext("request-1", 3_000)));
+        List<JsonNode> second = emit(InvocationMetrics.start("ConnectHandler", new StubContext("request-2", 3_000)));
+
+        assertEquals(1, first.size());
+        assertEquals(List.of(1.0), values(first.get(0), "ColdStart"));
+        assertEquals(1, second.size());
+        assertEquals(List.of(0.0), values(second.get(0), "ColdStart"));
+        assertEquals("request-2", second.get(0).get("requestId").asText());
+    }
+
+    @Test
+    @Order(2)
+    void moreThanOneHundredValuesAreSplitAcrossDocuments() throws Exception {
+        InvocationMetrics metrics = InvocationMetrics.start("ChangeStreamHandler", new StubContext("request-3", 3_000));
+        List<Double> latencies = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            latencies.add((double) i);
+            metrics.record("PostLatency", Unit.MILLISECONDS, i);
+        }
+        metrics.property("pushed", 250);
+
+        List<JsonNode> documents = emit(metrics);
+
+        assertEquals(3, documents.size());
+        List<Double> written = new ArrayList<>();
+        for (int i = 0; i < documents.size(); i++) {
+            JsonNode document = documents.get(i);
+            List<Double> chunk = values(document, "PostLatency");
+            assertEquals(i < 2 ? 100 : 50, chunk.size());
+            written.addAll(chunk);
+
+            // the single ColdStart value goes into the first document only, and is declared only there
+            assertEquals(i == 0, document.has("ColdStart"));
+            assertEquals(i == 0 ? Set.of("PostLatency", "ColdStart") : Set.of("PostLatency"), declared(document));
+
+            // every chunk is a complete document on its own
+            assertEquals("ChangeStreamHandler", document.get("Handler").asText());
+            assertEquals("request-3", document.get("requestId").asText());
+            assertEquals(250, document.get("pushed").asInt());
+            JsonNode definition = document.get("_aws").get("CloudWatchMetrics").get(0);
+            assertEquals("[[\"Handler\"]]", definition.get("Dimensions").toString());
+            assertTrue(document.get("_aws").get("Timestamp").isNumber());
+        }
+        assertEquals(latencies, written);
+    }
+
+    @Test
+    @Order(3)
+    void nothingIsRecordedOutsideAnInvocation() throws Exception {
+        InvocationMetrics metrics = InvocationMetrics.start("HeartbeatHandler", new StubContext("request-4", 3_000));
+        emit(metrics);
+
+        InvocationMetrics.current().record("PostLatency", Unit.MILLISECONDS, 1);
+        assertTrue(emit(InvocationMetrics.current()).isEmpty());
+        assertFalse(InvocationMetrics.current().sampled());
+    }
+
+    // Runs emit() with stdout captured and parses every line it printed
+    private List<JsonNode> emit(InvocationMetrics metrics) throws Exception {
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8));
+        try {
+            metrics.emit();
+        } finally {
+            System.setOut(stdout);
+        }
+        List<JsonNode> documents = new ArrayList<>();
+        for (String line : captured.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isBlank()) {
+                documents.add(mapper.readTree(line));
+            }
+        }
+        return documents;
+    }
+
+    private static List<Double> values(JsonNode document, String metric) {
+        List<Double> values = new ArrayList<>();
+        document.get(metric).forEach(value -> values.add(value.asDouble()));
+        return values;
+    }
+
+    // Metric names declared for CloudWatch in this document
+    private static Set<String> declared(JsonNode document) {
+        Set<String> names = new HashSet<>();
+        document.get("_aws").get("CloudWatchMetrics").get(0).get("Metrics")
+                .forEach(definition -> names.add(definition.get("Name").asText()));
+        return names;
+    }
+}
@@ -0,0 +1,166 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.example.repository.ReportRepository;
+import org.example.repository.TenantRepository;
+import org.example.service.ConnectAuthenticator.Subscriber;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Signs tokens with a key pair whose public half a local HTTP server publishes as the issuer's JWKS,
+ * and answers the report and tenant lookups from memory.
+ */
+class ConnectAuthenticatorTest {
+
+    static {
+        // The repositories open a (lazily connecting) client when their class loads
+        System.setProperty("MONGO_URI", "mongodb://localhost:1");
+    }
+
+    private static final String REPORT_ID = "report-1";
+    private static final String SECRET_KEY = "correct horse battery staple";
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static HttpServer issuer;
+    private static String issuerUrl;
+    private static KeyPair signingKey;
+
+    private final ConnectAuthenticator authenticator = new ConnectAuthenticator(
+            new ReportRepository() {
+                @Override
+                public BsonDocument findAccess(String reportId) {
+                    return REPORT_ID.equals(reportId)
+                            ? new BsonDocument("tenantId", new BsonString("tenant-a"))
+                                    .append("secretKeyHash", new BsonString(ConnectAuthenticator.hash(SECRET_KEY)))
+                            : null;
+                }
+            },
+            new TenantRepository() {
+                @Override
+                public String findActiveTenantIdByEmail(String email) {
+                    return Map.of("a@example.com", "tenant-a", "b@example.com", "tenant-b").get(email);
+                }
+            },
+            new CognitoTokenVerifier(issuerUrl));
+
+    @BeforeAll
+    static void startIssuer() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        signingKey = generator.generateKeyPair();
+        RSAPublicKey publicKey = (RSAPublicKey) signingKey.getPublic();
+        byte[] jwks = mapper.writeValueAsBytes(Map.of("keys", List.of(Map.of(
+                "kty", "RSA",
+                "kid", "key-1",
+                "alg", "RS256",
+                "n", base64(publicKey.getModulus().toByteArray()),
+                "e", base64(publicKey.getPublicExponent().toByteArray())))));
+
+        issuer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        issuer.createContext("/.well-known/jwks.json", exchange -> {
+            exchange.sendResponseHeaders(200, jwks.length);
+            exchange.getResponseBody().write(jwks);
+            exchange.close();
+        });
+        issuer.start();
+        issuerUrl = "http://localhost:" + issuer.getAddress().getPort();
+    }
+
+    @AfterAll
+    static void stopIssuer() {
+        issuer.stop(0);
+    }
+
+    @Test
+    void reporterNeedsTheReportsSecretKey() {
+        assertEquals(new Subscriber(REPORT_ID, "REPORTER"),
+                authenticator.authenticate(query("REPORTER", "secretKey", SECRET_KEY)));
+        assertNull(authenticator.authenticate(query("REPORTER", "secretKey", "guessed")));
+        assertNull(authenticator.authenticate(query("REPORTER", "secretKey", null)));
+    }
+
+    @Test
+    void adminNeedsATokenOfTheReportsTenant() throws Exception {
+        String token = token(issuerUrl, "a@example.com", 300);
+        assertEquals(new Subscriber(REPORT_ID, "ADMIN"), authenticator.authenticate(query("ADMIN", "token", token)));
+
+        assertNull(authenticator.authenticate(query("ADMIN", "token", token(issuerUrl, "b@example.com", 300))));
+        assertNull(authenticator.authenticate(query("ADMIN", "token", token(issuerUrl, "a@example.com", -10))));
+        assertNull(authenticator.authenticate(query("ADMIN", "token", token("https://elsewhere", "a@example.com", 300))));
+        assertNull(authenticator.authenticate(query("ADMIN", "token", null)));
+    }
+
+    @Test
+    void tamperedTokensAreRejected() throws Exception {
+        String[] parts = token(issuerUrl, "b@example.com", 300).split("\\.");
+        String claims = base64(mapper.writeValueAsBytes(claims(issuerUrl, "a@example.com", 300)));
+        assertNull(authenticator.authenticate(query("ADMIN", "token", parts[0] + "." + claims + "." + parts[2])));
+    }
+
+    @Test
+    void credentialsOfTheOtherRoleGrantNothing() throws Exception {
+        assertNull(authenticator.authenticate(query("ADMIN", "secretKey", SECRET_KEY)));
+        assertNull(authenticator.authenticate(query("REPORTER", "token", token(issuerUrl, "a@example.com", 300))));
+        assertNull(authenticator.authenticate(query("COMPLIANCE_TEAM", "secretKey", SECRET_KEY)));
+        assertNull(authenticator.authenticate(null));
+    }
+
+    @Test
+    void unknownReportsGrantNothing() {
+        Map<String, String> query = query("REPORTER", "secretKey", SECRET_KEY);
+        query.put("reportId", "report-2");
+        assertNull(authenticator.authenticate(query));
+    }
+
+    private static Map<String, String> query(String userType, String credential, String value) {
+        Map<String, String> query = new HashMap<>();
+        query.put("reportId", REPORT_ID);
+        query.put("userType", userType);
+        if (value != null) {
+            query.put(credential, value);
+        }
+        return query;
+    }
+
+    private static Map<String, Object> claims(String iss, String email, long expiresInSeconds) {
+        return Map.of(
+                "iss", iss,
+                "sub", "user-" + email,
+                "email", email,
+                "token_use", "id",
+                "exp", System.currentTimeMillis() / 1000 + expiresInSeconds);
+    }
+
+    private static String token(String iss, String email, long expiresInSeconds) throws Exception {
+        String signingInput = base64(mapper.writeValueAsBytes(Map.of("alg", "RS256", "kid", "key-1")))
+                + "." + base64(mapper.writeValueAsBytes(claims(iss, email, expiresInSeconds)));
+        Signature rsa = Signature.getInstance("SHA256withRSA");
+        rsa.initSign(signingKey.getPrivate());
+        rsa.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + base64(rsa.sign());
+    }
+
+    private static String base64(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
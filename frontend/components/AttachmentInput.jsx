@@ -1,6 +1,7 @@
 import React from 'react';
 import { useTranslation } from 'react-i18next';
 import { Paperclip, X, FileText } from 'lucide-react';
+import { ATTACHMENT_ACCEPT } from '../services/api';
 
 const AttachmentInput = ({ files, onChange, maxFiles = 3 }) => {
   const { t } = useTranslation();
@@ -40,7 +41,7 @@ const AttachmentInput = ({ files, onChange, maxFiles = 3 }) => {
             className="hidden"
             onChange={handleFileChange}
             disabled={files.length >= maxFiles}
-            accept="*"
+            accept={ATTACHMENT_ACCEPT}
           />
         </label>
         <span className="text-xs text-slate-500">{t('components.maxSize')}</span>
@@ -2,10 +2,13 @@ import React from 'react';
 import { useTranslation } from 'react-i18next';
 import { X, Download } from 'lucide-react';
 
-const FilePreviewModal = ({ isOpen, onClose, fileUrl, fileName }) => {
+// fileUrls is the page's { key: presignedUrl } map of the conversation's attachments
+const FilePreviewModal = ({ isOpen, onClose, fileUrls, fileKey, fileName }) => {
     const { t } = useTranslation();
     if (!isOpen) return null;
 
+    const fileUrl = fileUrls?.[fileKey];
+
     const getFileType = (name) => {
         if (!name) return 'unknown';
         const ext = name.split('.').pop().toLowerCase();
@@ -46,7 +49,11 @@ const FilePreviewModal = ({ isOpen, onClose, fileUrl, fileName }) => {
 
                 {/* Content */}
                 <div className="flex-1 overflow-auto bg-slate-100 flex items-center justify-center p-4">
-                    {fileType === 'image' && (
+                    {!fileUrl && (
+                        <p className="text-slate-500 p-10">{t('common.loading')}</p>
+                    )}
+
+                    {fileUrl && fileType === 'image' && (
                         <img
                             src={fileUrl}
                             alt={fileName}
@@ -54,7 +61,7 @@ const FilePreviewModal = ({ isOpen, onClose, fileUrl, fileName }) => {
                         />
                     )}
 
-                    {fileType === 'pdf' && (
+                    {fileUrl && fileType === 'pdf' && (
                         <iframe
                             src={fileUrl}
                             className="w-full h-full min-h-[60vh] rounded shadow-sm bg-white"
@@ -62,7 +69,7 @@ const FilePreviewModal = ({ isOpen, onClose, fileUrl, fileName }) => {
                         />
                     )}
 
-                    {fileType === 'other' && (
+                    {fileUrl && fileType === 'other' && (
                         <div className="text-center p-10">
                             <div className="mb-4 text-slate-400">
                                 <Download className="w-16 h-16 mx-auto mb-2" />
@@ -0,0 +1,27 @@
+import { useQuery } from '@tanstack/react-query';
+import { api } from '../services/api';
+
+// Presigned URLs are valid for 15 minutes; fetch fresh ones before they run out
+const URL_REFRESH_MS = 10 * 60 * 1000;
+
+// Attachment keys of a report and its messages, without duplicates
+export const attachmentKeys = (report, messages) => [
+  ...new Set([
+    ...(report?.attachments || []),
+    ...(messages || []).flatMap((msg) => msg.attachments || []),
+  ]),
+];
+
+// Presigned URLs of every attachment of a conversation in one request, as { key: url }.
+// The query key is the key list itself, so polling the report only refetches when an
+// attachment was added.
+export const useFileUrls = (keys) => {
+  const { data } = useQuery({
+    queryKey: ['file-urls', keys],
+    queryFn: () => api.getFileUrls(keys),
+    enabled: keys.length > 0,
+    staleTime: URL_REFRESH_MS,
+    refetchInterval: URL_REFRESH_MS,
+  });
+  return data || {};
+};
@@ -1,69 +1,187 @@
 import { useState, useEffect, useRef, useCallback } from 'react';
 
-export const useWebSocket = (url, reportId, userType) => {
+// Keeps the connection's server-side row alive (it expires after 15 minutes without one)
+// and the socket itself, which API Gateway closes after 10 idle minutes
+const HEARTBEAT_INTERVAL_MS = 5 * 60 * 1000;
+
+// Delay before reconnecting after the socket dropped
+const RECONNECT_DELAY_MS = 2000;
+
+// latestSeq: seq the page's REST load can be resumed from (report.messageSeq). After a drop the
+// socket reconnects with the newest seq below which it has every message and gets only the missed
+// messages replayed. Seqs can arrive out of order (a later write may commit first), so the cursor
+// only moves over a seq once all earlier ones arrived.
+// onResyncNeeded is called when the page should reload the report: the gap was too large to
+// replay, or the report's status changed.
+// getCredential returns what the server authenticates the socket with: the secret key for a
+// REPORTER, the access token for an ADMIN. It is called on every (re)connect, so a refreshed
+// token is picked up.
+export const useWebSocket = (url, reportId, userType, getCredential, latestSeq = 0, onResyncNeeded) => {
     const [isConnected, setIsConnected] = useState(false);
     const [messages, setMessages] = useState([]);
     const ws = useRef(null);
+    const lastSeq = useRef(0);
+    // seqs received above lastSeq + 1, waiting for the ones before them
+    const aheadSeqs = useRef(new Set());
+    const resync = useRef(onResyncNeeded);
+    const credential = useRef(getCredential);
+
+    const advanceCursor = (floor) => {
+        lastSeq.current = Math.max(lastSeq.current, floor);
+        while (aheadSeqs.current.has(lastSeq.current + 1)) {
+            lastSeq.current += 1;
+        }
+        aheadSeqs.current.forEach((seq) => {
+            if (seq <= lastSeq.current) {
+                aheadSeqs.current.delete(seq);
+            }
+        });
+    };
 
     useEffect(() => {
-        if (!url || !reportId || !userType) return;
+        advanceCursor(latestSeq || 0);
+    }, [latestSeq]);
+
+    useEffect(() => {
+        resync.current = onResyncNeeded;
+    }, [onResyncNeeded]);
+
+    useEffect(() => {
+        credential.current = getCredential;
+    }, [getCredential]);
 
-        const fullUrl = `${url}?reportId=${reportId}&userType=${userType}`;
-        console.log(`Connecting to WebSocket: ${fullUrl}`);
+    useEffect(() => {
+        if (!url || !reportId || !userType) return;
 
-        ws.current = new WebSocket(fullUrl);
+        let heartbeat = null;
+        let reconnectTimer = null;
+        let closedByUs = false;
 
-        ws.current.onopen = () => {
-            console.log('WebSocket Connected');
-            setIsConnected(true);
+        const addMessages = (incoming) => {
+            incoming.forEach((msg) => {
+                if (msg.seq > lastSeq.current) {
+                    aheadSeqs.current.add(msg.seq);
+                }
+            });
+            advanceCursor(lastSeq.current);
+            setMessages((prev) => {
+                const known = new Set(prev.filter((msg) => msg.id).map((msg) => msg.id));
+                return [...prev, ...incoming.filter((msg) => !msg.id || !known.has(msg.id))];
+            });
         };
 
-        ws.current.onmessage = (event) => {
-            console.log('WebSocket Message Received:', event.data);
-            try {
-                // Try parsing assuming it's JSON, though standard messages might be plain strings or JSON strings
-                // Based on test-client.html, the backend might just broadcast whatever it receives or specific format.
-                // Let's assume for now we might receive JSON objects or strings.
-                // If the backend sends "Received: ...", we might need to parse.
-                // However, usually we want structured data.
-                // Let's store the raw data or parsed data.
-                const data = JSON.parse(event.data);
-                setMessages((prev) => [...prev, data]);
-            } catch (e) {
-                // If not JSON, just store the string
-                setMessages((prev) => [...prev, { message: event.data, createdAt: Date.now() / 1000, sender: 'UNKNOWN' }]);
+        const connect = () => {
+            const cursor = lastSeq.current > 0 ? `&lastSeq=${lastSeq.current}` : '';
+            const params = new URLSearchParams({ reportId, userType });
+            const secret = credential.current ? credential.current() : null;
+            if (secret) {
+                params.set(userType === 'ADMIN' ? 'token' : 'secretKey', secret);
             }
-        };
+            // the credential stays out of the log
+            console.log(`Connecting to WebSocket: ${url} (report ${reportId}, ${userType})`);
 
-        ws.current.onclose = () => {
-            console.log('WebSocket Disconnected');
-            setIsConnected(false);
-        };
+            const socket = new WebSocket(`${url}?${params}${cursor}`);
+            ws.current = socket;
+
+            socket.onopen = () => {
+                console.log('WebSocket Connected');
+                setIsConnected(true);
+                if (cursor) {
+                    // the server kept the cursor from the connect URL, ask it for what we missed
+                    socket.send(JSON.stringify({ action: 'replay' }));
+                }
+                heartbeat = setInterval(() => {
+                    if (socket.readyState === WebSocket.OPEN) {
+                        socket.send(JSON.stringify({ action: 'heartbeat' }));
+                    }
+                }, HEARTBEAT_INTERVAL_MS);
+            };
+
+            socket.onmessage = (event) => {
+                console.log('WebSocket Message Received:', event.data);
+                try {
+                    const data = JSON.parse(event.data);
+                    if (data.type === 'reconnect') {
+                        // the server dropped this connection's registration, onclose opens a new socket
+                        socket.close();
+                        return;
+                    }
+                    if (data.type === 'error') {
+                        console.error('WebSocket message rejected:', data.error);
+                        return;
+                    }
+                    if (data.type === 'batch') {
+                        const pushed = data.events.filter((frame) => frame.type === 'message');
+                        addMessages(pushed);
+                        if (pushed.length < data.events.length && resync.current) {
+                            resync.current();
+                        }
+                        return;
+                    }
+                    if (data.type === 'status') {
+                        if (resync.current) {
+                            resync.current();
+                        }
+                        return;
+                    }
+                    if (data.type === 'replay') {
+                        addMessages(data.messages);
+                        if (data.done && !data.complete && resync.current) {
+                            resync.current();
+                        }
+                        return;
+                    }
+                    addMessages([data]);
+                } catch (e) {
+                    // If not JSON, just store the string
+                    setMessages((prev) => [...prev, { message: event.data, createdAt: Date.now() / 1000, sender: 'UNKNOWN' }]);
+                }
+            };
 
-        ws.current.onerror = (error) => {
-            console.error('WebSocket Error:', error);
+            socket.onclose = () => {
+                console.log('WebSocket Disconnected');
+                clearInterval(heartbeat);
+                setIsConnected(false);
+                if (!closedByUs) {
+                    reconnectTimer = setTimeout(connect, RECONNECT_DELAY_MS);
+                }
+            };
+
+            socket.onerror = (error) => {
+                console.error('WebSocket Error:', error);
+            };
         };
 
+        connect();
+
         return () => {
+            closedByUs = true;
+            clearInterval(heartbeat);
+            clearTimeout(reconnectTimer);
             if (ws.current) {
                 ws.current.close();
             }
         };
     }, [url, reportId, userType]);
 
-    const sendMessage = useCallback((message) => {
+    // Stores the message on the server and broadcasts it in one frame. The server echoes the
+    // stored message back (with id and seq) to every socket of the report, including this one.
+    // Returns false when the socket is not open, so the caller can fall back to the REST API.
+    const sendMessage = useCallback((message, attachments = []) => {
         if (ws.current && ws.current.readyState === WebSocket.OPEN) {
             const payload = JSON.stringify({
                 action: 'sendMessage',
+                mode: 'persist',
                 reportId: reportId,
                 message: message,
-                userType: userType // Added userType for sender identification
+                attachments: attachments
             });
             ws.current.send(payload);
-        } else {
-            console.warn('WebSocket is not connected');
+            return true;
         }
-    }, [reportId, userType]);
+        console.warn('WebSocket is not connected');
+        return false;
+    }, [reportId]);
 
     return { isConnected, messages, sendMessage, setMessages };
 };
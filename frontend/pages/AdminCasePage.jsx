@@ -1,15 +1,16 @@
-import React, { useState } from 'react';
+import React, { useState, useEffect } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
 import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
 import { useAuth } from 'react-oidc-context';
 import { useTranslation } from 'react-i18next';
 import { Send, ArrowLeft, Shield, AlertTriangle } from 'lucide-react';
 import toast from 'react-hot-toast';
-import { api } from '../services/api';
+import { api, getAuthToken } from '../services/api';
 import AttachmentInput from '../components/AttachmentInput';
 import Modal from '../components/Modal';
 import { useWebSocket } from '../hooks/useWebSocket';
 import FilePreviewModal from '../components/FilePreviewModal';
+import { useFileUrls, attachmentKeys } from '../hooks/useFileUrls';
 
 // Backend status values (uppercase)
 const BackendStatus = {
@@ -42,7 +43,7 @@ const AdminCasePage = () => {
 
   // Modal State
   const [previewOpen, setPreviewOpen] = useState(false);
-  const [previewUrl, setPreviewUrl] = useState('');
+  const [previewKey, setPreviewKey] = useState(null);
   const [previewName, setPreviewName] = useState('');
 
   // First, fetch all tenants to find the one matching the user's email
@@ -63,21 +64,40 @@ const AdminCasePage = () => {
     enabled: !!tenantId, // Only fetch when tenantId is available
   });
 
+  // Presigned URLs of all attachments, fetched once per conversation instead of per click
+  const fileUrls = useFileUrls(attachmentKeys(data?.report, data?.messages));
+
+  // Opening the case reads the reporter's messages (one updateMany on the server)
+  const unreadFromReporter = data?.report?.unreadFromReporter || 0;
+  useEffect(() => {
+    if (tenantId && unreadFromReporter > 0) {
+      api.markReportRead(tenantId, id).catch(() => {});
+    }
+  }, [tenantId, id, unreadFromReporter]);
+
   // WebSocket Integration
   const { isConnected, messages: liveMessages, sendMessage } = useWebSocket(
     'wss://98gb1udew7.execute-api.eu-central-1.amazonaws.com/prod/',
     id,
-    'ADMIN'
+    'ADMIN',
+    getAuthToken,
+    data?.report?.messageSeq,
+    () => queryClient.invalidateQueries({ queryKey: ['report-admin', tenantId, id] })
   );
 
   const replyMutation = useMutation({
-    mutationFn: () => api.replyToReport(id, replyText, 'COMPLIANCE_TEAM', files),
-    onSuccess: () => {
-      // Send message via WebSocket for real-time update
-      if (replyText.trim()) {
-        sendMessage(replyText);
+    mutationFn: async () => {
+      // Over the open socket the message is stored and broadcast in one frame,
+      // the REST API is only the fallback when there is no connection
+      if (isConnected) {
+        const attachments = await api.uploadAttachments(files);
+        if (sendMessage(replyText, attachments)) {
+          return;
+        }
       }
-
+      return api.replyToReport(id, replyText, 'COMPLIANCE_TEAM', files);
+    },
+    onSuccess: () => {
       setReplyText('');
       setFiles([]);
       toast.success(t('userCase.replySent'));
@@ -116,15 +136,10 @@ const AdminCasePage = () => {
     return key;
   };
 
-  const handleFileClick = async (key) => {
-    try {
-      const url = await api.getFileUrl(key);
-      setPreviewUrl(url);
-      setPreviewName(getFileName(key));
-      setPreviewOpen(true);
-    } catch (error) {
-      toast.error('Failed to open file');
-    }
+  const handleFileClick = (key) => {
+    setPreviewKey(key);
+    setPreviewName(getFileName(key));
+    setPreviewOpen(true);
   };
 
 
@@ -232,7 +247,7 @@ const AdminCasePage = () => {
         {/* Live WebSocket Messages */}
         {liveMessages.filter(liveMsg => {
           return !messages?.some(histMsg =>
-            histMsg.message === liveMsg.message &&
+            (liveMsg.id ? histMsg.id === liveMsg.id : histMsg.message === liveMsg.message) &&
             (Date.now() - new Date(histMsg.createdAt * 1000).getTime() < 120000)
           );
         }).map((msg, index) => {
@@ -285,7 +300,8 @@ const AdminCasePage = () => {
       <FilePreviewModal
         isOpen={previewOpen}
         onClose={() => setPreviewOpen(false)}
-        fileUrl={previewUrl}
+        fileUrls={fileUrls}
+        fileKey={previewKey}
         fileName={previewName}
       />
     </div>
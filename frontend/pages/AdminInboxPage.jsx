@@ -1,6 +1,6 @@
 import React, { useState } from 'react';
 import { Link } from 'react-router-dom';
-import { useQuery } from '@tanstack/react-query';
+import { useQuery, useInfiniteQuery, keepPreviousData } from '@tanstack/react-query';
 import { useAuth } from 'react-oidc-context';
 import { useTranslation } from 'react-i18next';
 import { Search, Filter, Inbox, ChevronRight, LogOut } from 'lucide-react';
@@ -42,27 +42,47 @@ const AdminInboxPage = () => {
   const userTenant = tenants?.find(t => t.email === userEmail);
   const tenantId = userTenant?.tenantId;
 
-  // Then fetch reports for this tenant
-  const { data: reports, isLoading: isLoadingReports } = useQuery({
-    queryKey: ['admin-reports', tenantId],
-    queryFn: () => api.getReports(tenantId),
+  // Then page through this tenant's reports, newest first; the status filter runs on the server
+  const statusFilter = filter === 'All' ? null : filter;
+  const {
+    data: reportPages,
+    isLoading: isLoadingReports,
+    fetchNextPage,
+    hasNextPage,
+    isFetchingNextPage,
+  } = useInfiniteQuery({
+    queryKey: ['admin-reports', tenantId, statusFilter],
+    queryFn: ({ pageParam }) => api.getReportPage(tenantId, { status: statusFilter, cursor: pageParam }),
+    initialPageParam: null,
+    getNextPageParam: (lastPage) => (lastPage.hasMore ? lastPage.nextCursor : undefined),
+    // keep showing the current list while another status loads
+    placeholderData: keepPreviousData,
     enabled: !!tenantId, // Only fetch when tenantId is available
   });
+  const reports = reportPages?.pages.flatMap((page) => page.reports);
+
+  const { data: summary } = useQuery({
+    queryKey: ['tenant-summary', tenantId],
+    queryFn: () => api.getTenantSummary(tenantId),
+    enabled: !!tenantId,
+  });
 
   const isLoading = isLoadingTenants || (tenantId && isLoadingReports);
 
   // Check if tenant is inactive
   const isInactive = userTenant && userTenant.active === false;
 
+  // Search narrows the pages loaded so far; pages already arrive newest first
   const filteredReports = isInactive
     ? []
-    : reports
-      ?.filter((r) => filter === 'All' || r.status === filter)
-      .filter((r) =>
-        r.subject.toLowerCase().includes(search.toLowerCase()) ||
-        r.reportId.toLowerCase().includes(search.toLowerCase())
-      )
-      .sort((a, b) => b.createdAt - a.createdAt);
+    : reports?.filter((r) =>
+      r.subject.toLowerCase().includes(search.toLowerCase()) ||
+      r.reportId.toLowerCase().includes(search.toLowerCase())
+    );
+
+  // Per-status totals come from the server-side counters, not from the loaded pages
+  const statusLabel = (status) =>
+    summary ? `${t(`status.${status}`)} (${summary.byStatus[status] || 0})` : t(`status.${status}`);
 
   if (isLoading) return <div className="p-10 text-center text-slate-500">{t('common.loading')}</div>;
 
@@ -71,15 +91,12 @@ const AdminInboxPage = () => {
       <div className="flex flex-col sm:flex-row sm:items-center justify-between gap-4 mb-8">
         <h1 className="text-2xl font-bold text-slate-900">{t('admin.inboxTitle')}</h1>
         <div className="flex items-center space-x-2">
-          {/* Mock stats */}
+          {/* Stats from the server-side counters */}
           <div className="bg-white px-3 py-1 rounded-md border border-slate-200 text-xs font-semibold text-slate-600">
-            {t('admin.open')}: {reports?.filter(r => r.status !== ReportStatus.Closed).length || 0}
+            {t('admin.open')}: {summary ? summary.total - summary.byStatus.CLOSED - summary.byStatus.CANCELED : 0}
           </div>
           <div className="bg-red-50 px-3 py-1 rounded-md border border-red-100 text-xs font-semibold text-red-600">
-            {t('admin.overdue')}: {reports?.filter(r => {
-              const diff = Date.now() - (r.createdAt * 1000);
-              return r.status === ReportStatus.New && diff > 7 * 24 * 60 * 60 * 1000;
-            }).length || 0}
+            {t('admin.overdue')}: {summary?.overdue || 0}
           </div>
           <button
             onClick={handleLogout}
@@ -111,11 +128,11 @@ const AdminInboxPage = () => {
               onChange={(e) => setFilter(e.target.value)}
               className="border border-slate-300 rounded-lg py-2 px-3 text-sm focus:ring-1 focus:ring-blue-500 outline-none bg-white"
             >
-              <option value="All">{t('admin.allStatuses')}</option>
-              <option value={ReportStatus.New}>{t('status.NEW')}</option>
-              <option value={ReportStatus.Received}>{t('status.RECEIVED')}</option>
-              <option value={ReportStatus.InProgress}>{t('status.IN_PROGRESS')}</option>
-              <option value={ReportStatus.Closed}>{t('status.CLOSED')}</option>
+              <option value="All">{summary ? `${t('admin.allStatuses')} (${summary.total})` : t('admin.allStatuses')}</option>
+              <option value={ReportStatus.New}>{statusLabel(ReportStatus.New)}</option>
+              <option value={ReportStatus.Received}>{statusLabel(ReportStatus.Received)}</option>
+              <option value={ReportStatus.InProgress}>{statusLabel(ReportStatus.InProgress)}</option>
+              <option value={ReportStatus.Closed}>{statusLabel(ReportStatus.Closed)}</option>
             </select>
           </div>
         </div>
@@ -158,11 +175,13 @@ const AdminInboxPage = () => {
                         <span className="font-mono text-xs text-slate-400">#{report.reportId.substring(0, 8)}</span>
                         <StatusBadge status={report.status} />
                         <TimerIndicator createdAt={report.createdAt} status={report.status} />
+                        {report.unreadFromReporter > 0 && (
+                          <span className="inline-flex items-center justify-center min-w-5 h-5 px-1.5 rounded-full bg-blue-600 text-white text-xs font-semibold">
+                            {report.unreadFromReporter}
+                          </span>
+                        )}
                       </div>
                       <h3 className="text-sm font-semibold text-slate-900 group-hover:text-blue-600 transition-colors">{report.subject}</h3>
-                      <p className="text-xs text-slate-500 mt-1 truncate max-w-md">
-                        {report.message?.substring(0, 60)}...
-                      </p>
                     </div>
                   </div>
                   <ChevronRight className="w-4 h-4 text-slate-300 group-hover:text-slate-500" />
@@ -171,6 +190,17 @@ const AdminInboxPage = () => {
             ))
           )}
         </div>
+        {!isInactive && hasNextPage && (
+          <div className="p-4 border-t border-slate-200 text-center">
+            <button
+              onClick={() => fetchNextPage()}
+              disabled={isFetchingNextPage}
+              className="px-4 py-2 text-sm font-medium text-slate-600 border border-slate-300 rounded-lg hover:bg-slate-50 disabled:opacity-50 transition-colors"
+            >
+              {isFetchingNextPage ? t('common.loading') : t('admin.loadMore')}
+            </button>
+          </div>
+        )}
       </div>
     </div>
   );
@@ -1,4 +1,4 @@
-import React, { useState } from 'react';
+import React, { useState, useEffect } from 'react';
 import { useParams, useLocation, Navigate, useNavigate } from 'react-router-dom';
 import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
 import { Send, ArrowLeft, User } from 'lucide-react';
@@ -10,6 +10,7 @@ import AttachmentInput from '../components/AttachmentInput';
 import StatusBadge from '../components/StatusBadge';
 import { useWebSocket } from '../hooks/useWebSocket';
 import FilePreviewModal from '../components/FilePreviewModal';
+import { useFileUrls, attachmentKeys } from '../hooks/useFileUrls';
 
 // Convert Unix timestamp (seconds) to date string
 const formatDate = (timestamp) => {
@@ -32,7 +33,7 @@ const UserCasePage = () => {
 
   // Modal State
   const [previewOpen, setPreviewOpen] = useState(false);
-  const [previewUrl, setPreviewUrl] = useState('');
+  const [previewKey, setPreviewKey] = useState(null);
   const [previewName, setPreviewName] = useState('');
 
   // 1. Fetch Report Data using secretKey
@@ -44,24 +45,43 @@ const UserCasePage = () => {
     retry: false,
   });
 
+  // Presigned URLs of all attachments, fetched once per conversation instead of per click
+  const fileUrls = useFileUrls(attachmentKeys(data?.report, data?.messages));
+
   // WebSocket Integration
   // Use a heuristic or wait for data to get reportId. 
   // We can't init WS until we have reportId.
   const reportId = data?.report?.reportId;
+  // Opening the case reads the compliance team's replies
+  const unreadFromComplianceTeam = data?.report?.unreadFromComplianceTeam || 0;
+  useEffect(() => {
+    if (secretKey && unreadFromComplianceTeam > 0) {
+      api.markConversationRead(secretKey).catch(() => {});
+    }
+  }, [secretKey, unreadFromComplianceTeam]);
+
   const { isConnected, messages: liveMessages, sendMessage } = useWebSocket(
     reportId ? 'wss://98gb1udew7.execute-api.eu-central-1.amazonaws.com/prod/' : null,
     reportId,
-    'REPORTER'
+    'REPORTER',
+    () => secretKey,
+    data?.report?.messageSeq,
+    () => queryClient.invalidateQueries({ queryKey: ['report', secretKey] })
   );
 
   const replyMutation = useMutation({
-    mutationFn: () => api.replyToReport(data?.report?.reportId, replyText, 'REPORTER', files),
-    onSuccess: () => {
-      // Send message via WebSocket for real-time update
-      if (replyText.trim()) {
-        sendMessage(replyText);
+    mutationFn: async () => {
+      // Over the open socket the message is stored and broadcast in one frame,
+      // the REST API is only the fallback when there is no connection
+      if (isConnected) {
+        const attachments = await api.uploadAttachments(files);
+        if (sendMessage(replyText, attachments)) {
+          return;
+        }
       }
-
+      return api.replyToReport(data?.report?.reportId, replyText, 'REPORTER', files);
+    },
+    onSuccess: () => {
       setReplyText('');
       setFiles([]);
       toast.success(t('userCase.replySent'));
@@ -90,15 +110,10 @@ const UserCasePage = () => {
     return key;
   };
 
-  const handleFileClick = async (key) => {
-    try {
-      const url = await api.getFileUrl(key);
-      setPreviewUrl(url);
-      setPreviewName(getFileName(key));
-      setPreviewOpen(true);
-    } catch (error) {
-      toast.error('Failed to open file');
-    }
+  const handleFileClick = (key) => {
+    setPreviewKey(key);
+    setPreviewName(getFileName(key));
+    setPreviewOpen(true);
   };
 
   const handleReply = (e) => {
@@ -200,7 +215,7 @@ const UserCasePage = () => {
         {liveMessages.filter(liveMsg => {
           // Deduplicate: Don't show live message if it's already in the historical messages
           return !messages?.some(histMsg =>
-            histMsg.message === liveMsg.message &&
+            (liveMsg.id ? histMsg.id === liveMsg.id : histMsg.message === liveMsg.message) &&
             (Date.now() - new Date(histMsg.createdAt * 1000).getTime() < 120000) // matches within last 2 mins
           );
         }).map((msg, index) => {
@@ -257,7 +272,8 @@ const UserCasePage = () => {
       <FilePreviewModal
         isOpen={previewOpen}
         onClose={() => setPreviewOpen(false)}
-        fileUrl={previewUrl}
+        fileUrls={fileUrls}
+        fileKey={previewKey}
         fileName={previewName}
       />
     </div>
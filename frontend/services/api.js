@@ -40,34 +40,109 @@ const getAuthHeaders = () => {
 };
 
 
+// Query string for the conversation window: { since, before, limit } (all optional)
+const conversationQuery = (window = {}) => {
+  const params = new URLSearchParams();
+  Object.entries(window).forEach(([name, value]) => {
+    if (value !== undefined && value !== null) {
+      params.append(name, String(value));
+    }
+  });
+  const query = params.toString();
+  return query ? `?${query}` : '';
+};
+
+// Content types the backend accepts for uploads (app.s3.allowed-content-types), by file extension
+const CONTENT_TYPES_BY_EXTENSION = {
+  pdf: 'application/pdf',
+  jpg: 'image/jpeg',
+  jpeg: 'image/jpeg',
+  png: 'image/png',
+  gif: 'image/gif',
+  txt: 'text/plain',
+  doc: 'application/msword',
+  docx: 'application/vnd.openxmlformats-officedocument.wordprocessingml.document',
+};
+
+// Value for the file input's accept attribute
+export const ATTACHMENT_ACCEPT = Object.keys(CONTENT_TYPES_BY_EXTENSION).map((ext) => `.${ext}`).join(',');
+
+// Browsers leave file.type empty for extensions they do not know, fall back to the extension
+const attachmentContentType = (file) => {
+  const allowed = Object.values(CONTENT_TYPES_BY_EXTENSION);
+  if (allowed.includes(file.type)) {
+    return file.type;
+  }
+  const extension = file.name.includes('.') ? file.name.split('.').pop().toLowerCase() : '';
+  const contentType = CONTENT_TYPES_BY_EXTENSION[extension];
+  if (!contentType) {
+    throw new Error(`${file.name}: unsupported file type, allowed are PDF, images (JPEG, PNG, GIF), text and Word documents`);
+  }
+  return contentType;
+};
+
+// Uploads files directly to S3 via presigned PUT URLs and returns their object keys
+const uploadAttachments = async (files) => {
+  if (!files || files.length === 0) {
+    return [];
+  }
+
+  // Resolved up front so an unsupported file fails with a readable message instead of a bare 400
+  const requests = files.map((file) => ({
+    fileName: file.name,
+    contentType: attachmentContentType(file),
+    size: file.size,
+  }));
+
+  const response = await fetch(`${API_BASE_URL}/whistleblower/uploads/presign`, {
+    method: 'POST',
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    body: JSON.stringify(requests),
+  });
+  if (!response.ok) {
+    throw new Error('Failed to prepare attachment upload');
+  }
+  const uploads = await response.json();
+
+  await Promise.all(uploads.map(async (upload, index) => {
+    const putResponse = await fetch(upload.url, {
+      method: upload.method,
+      headers: upload.headers,
+      body: files[index],
+    });
+    if (!putResponse.ok) {
+      throw new Error(`Failed to upload ${files[index].name}`);
+    }
+  }));
+
+  return uploads.map((upload) => upload.key);
+};
 
 export const api = {
+  // Presigned direct-to-S3 upload, resolves to the object keys to attach to a message
+  uploadAttachments,
+
   createReport: async (tenantId, subject, message, files) => {
     console.log("createReport called with files:", files);
     try {
-      const formData = new FormData();
+      // Attachments go straight to S3, the API only receives their keys
+      const attachments = await uploadAttachments(files);
 
       const reportData = {
         tenantId,
         subject,
         message,
-        attachments: [] // Attachments list in JSON can be empty or used for other metadata
+        attachments,
       };
 
-      // Append reportData as JSON blob
-      formData.append('reportData', new Blob([JSON.stringify(reportData)], { type: 'application/json' }));
-
-      // Append attachments if any
-      if (files && files.length > 0) {
-        files.forEach((file) => {
-          formData.append('attachments', file);
-        });
-      }
-
       const response = await fetch(`${API_BASE_URL}/whistleblower/anonymous/submitNewReport`, {
         method: 'POST',
-        // Content-Type header matches boundary automatically when using FormData
-        body: formData,
+        headers: {
+          'Content-Type': 'application/json',
+        },
+        body: JSON.stringify(reportData),
       });
 
       if (!response.ok) {
@@ -98,14 +173,15 @@ export const api = {
   },
 
   // Get report by secretKey (for reporters/users)
-  getReportBySecretKey: async (secretKey) => {
+  // Pass { since: lastSeq } to fetch only new messages, { before: oldestSeq } for older ones
+  getReportBySecretKey: async (secretKey, window) => {
     try {
-      const response = await fetch(`${API_BASE_URL}/whistleblower/report/${secretKey}/conversation`);
+      const response = await fetch(`${API_BASE_URL}/whistleblower/report/${secretKey}/conversation${conversationQuery(window)}`);
       if (!response.ok) {
         throw new Error('Failed to fetch report');
       }
       const data = await response.json();
-      // Returns: { report: {...}, messages: [...] }
+      // Returns: { report: {...}, messages: [...], hasMore }
       return data;
     } catch (error) {
       console.error('Error fetching report by secret key:', error);
@@ -113,9 +189,9 @@ export const api = {
     }
   },
 
-  getReport: async (tenantId, reportId) => {
+  getReport: async (tenantId, reportId, window) => {
     try {
-      const response = await fetch(`${API_BASE_URL}/whistleblower/tenant/${tenantId}/report/${reportId}/conversation`, {
+      const response = await fetch(`${API_BASE_URL}/whistleblower/tenant/${tenantId}/report/${reportId}/conversation${conversationQuery(window)}`, {
         headers: {
           ...getAuthHeaders(),
         },
@@ -124,7 +200,7 @@ export const api = {
         throw new Error('Failed to fetch report');
       }
       const data = await response.json();
-      // Returns: { report: {...}, messages: [...] }
+      // Returns: { report: {...}, messages: [...], hasMore }
       return data;
     } catch (error) {
       console.error('Error fetching report:', error);
@@ -132,16 +208,30 @@ export const api = {
     }
   },
 
-  getFileUrl: async (key) => {
+  // Presigned URLs for many attachment keys, returns { key: url }. The server presigns at most
+  // 100 keys per request, longer lists are split
+  getFileUrls: async (keys) => {
     try {
-      const response = await fetch(`${API_BASE_URL}/whistleblower/file-url/${key}`);
-      if (!response.ok) {
-        throw new Error('Failed to get file URL');
+      const chunks = [];
+      for (let i = 0; i < keys.length; i += 100) {
+        chunks.push(keys.slice(i, i + 100));
       }
-      const url = await response.text();
-      return url;
+      const maps = await Promise.all(chunks.map(async (chunk) => {
+        const response = await fetch(`${API_BASE_URL}/whistleblower/file-urls`, {
+          method: 'POST',
+          headers: {
+            'Content-Type': 'application/json',
+          },
+          body: JSON.stringify(chunk),
+        });
+        if (!response.ok) {
+          throw new Error('Failed to get file URLs');
+        }
+        return response.json();
+      }));
+      return Object.assign({}, ...maps);
     } catch (error) {
-      console.error('Error fetching file URL:', error);
+      console.error('Error fetching file URLs:', error);
       throw error;
     }
   },
@@ -164,31 +254,57 @@ export const api = {
     }
   },
 
-  replyToReport: async (reportId, message, sender = 'COMPLIANCE_TEAM', files) => {
+  // Admin opened the case: marks every reporter message of the report as read
+  markReportRead: async (tenantId, reportId) => {
+    try {
+      const response = await fetch(`${API_BASE_URL}/whistleblower/tenant/${tenantId}/report/${reportId}/read`, {
+        method: 'POST',
+        headers: {
+          ...getAuthHeaders(),
+        },
+      });
+      if (!response.ok) {
+        throw new Error('Failed to mark messages as read');
+      }
+      return response.json(); // Returns: { status, message, data: number of messages marked }
+    } catch (error) {
+      console.error('Error marking messages as read:', error);
+      throw error;
+    }
+  },
+
+  // Reporter opened the case: marks every compliance team message as read
+  markConversationRead: async (secretKey) => {
     try {
-      // Process attachments if any
-      // const attachmentData = ... (Removed as we now use FormData)
+      const response = await fetch(`${API_BASE_URL}/whistleblower/report/${secretKey}/read`, {
+        method: 'POST',
+      });
+      if (!response.ok) {
+        throw new Error('Failed to mark messages as read');
+      }
+      return response.json();
+    } catch (error) {
+      console.error('Error marking messages as read:', error);
+      throw error;
+    }
+  },
 
-      const formData = new FormData();
+  replyToReport: async (reportId, message, sender = 'COMPLIANCE_TEAM', files) => {
+    try {
+      const attachments = await uploadAttachments(files);
 
       const messageData = {
         sender,
         message,
-        attachments: []
+        attachments,
       };
 
-      formData.append('messageData', new Blob([JSON.stringify(messageData)], { type: 'application/json' }));
-
-      if (files && files.length > 0) {
-        files.forEach((file) => {
-          formData.append('attachments', file);
-        });
-      }
-
       const response = await fetch(`${API_BASE_URL}/whistleblower/reports/${reportId}/messages`, {
         method: 'POST',
-        // Content-Type matches boundary
-        body: formData,
+        headers: {
+          'Content-Type': 'application/json',
+        },
+        body: JSON.stringify(messageData),
       });
 
       if (!response.ok) {
@@ -204,25 +320,49 @@ export const api = {
   },
 
   // Admin specific
-  getReports: async (tenantId) => {
+  // Dashboard counters, maintained on the server instead of counting the report list
+  getTenantSummary: async (tenantId) => {
     try {
-      const response = await fetch(`${API_BASE_URL}/whistleblower/tenant/${tenantId}/reports`, {
+      const response = await fetch(`${API_BASE_URL}/whistleblower/tenant/${tenantId}/summary`, {
         headers: {
           ...getAuthHeaders(),
         },
       });
       if (!response.ok) {
-        throw new Error('Failed to fetch reports');
+        throw new Error('Failed to fetch tenant summary');
       }
-      const data = await response.json();
-      return data; // Backend returns array directly
+      return await response.json(); // Returns: { tenantId, total, byStatus: { NEW: n, ... }, unreadMessages, overdue, updatedAt }
     } catch (error) {
-      console.error('Error fetching reports:', error);
+      console.error('Error fetching tenant summary:', error);
       throw error;
     }
   },
 
-
+  // Keyset-paginated report list without message bodies; pass the previous page's nextCursor to
+  // continue, and a status to list only reports in that status
+  getReportPage: async (tenantId, { status = null, cursor = null, limit = 20 } = {}) => {
+    try {
+      const params = new URLSearchParams({ limit: String(limit) });
+      if (status) {
+        params.append('status', status);
+      }
+      if (cursor) {
+        params.append('cursor', cursor);
+      }
+      const response = await fetch(`${API_BASE_URL}/whistleblower/tenant/${tenantId}/reports/page?${params}`, {
+        headers: {
+          ...getAuthHeaders(),
+        },
+      });
+      if (!response.ok) {
+        throw new Error('Failed to fetch reports');
+      }
+      return await response.json(); // Returns: { reports: [...], nextCursor, hasMore }
+    } catch (error) {
+      console.error('Error fetching report page:', error);
+      throw error;
+    }
+  },
 
   // Tenant Management
   getTenants: async () => {